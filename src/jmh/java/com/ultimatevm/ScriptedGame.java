@@ -0,0 +1,67 @@
+package com.ultimatevm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static com.ultimatevm.VentStatus.*;
+
+//Records a deterministic full game (1000 ticks) from the tests' RandomGame in the GameRecorder format
+//so benchmarks replay generated games the same way as real recordings
+public class ScriptedGame {
+    private static final int[] IDENTIFY_TICKS = {20, 60, 110};
+    private static final int DIRECTION_FLIP_CHANCE = 60;
+    private static final int EARTHQUAKE_CHANCE = 120;
+
+    public static GameRecordingReader record(int identifiedVents, int players, long seed) throws IOException {
+        Random random = new Random(seed);
+        //Identify vents in a random order
+        int[] order = {0, 1, 2};
+        for(int i = order.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int temp = order[i]; order[i] = order[j]; order[j] = temp;
+        }
+
+        Path path = Files.createTempFile("uvm", BatchReplayRunner.RECORDING_EXTENSION);
+        try {
+            try(GameRecorder recorder = new GameRecorder(path)) {
+                //Stability rng depends on the player count
+                StabilityUpdateInfo.restorePlayers(players);
+                int[] stability = {StabilityTracker.STARTING_STABILITY};
+                for(int half = 0; half < 2; ++half) {
+                    RandomGame game = makeHalf(random, half == 1, players);
+                    for(int i = 0; i < identifiedVents; ++i)
+                        game.setIdentifyTick(order[i], IDENTIFY_TICKS[i]);
+                    game.play(VentStatusTimeline.VM_GAME_RESET_TIME, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                        if(stabilityChange != RandomGame.NO_STABILITY_CHANGE)
+                            stability[0] = Math.min(100, Math.max(1, stability[0] + stabilityChange));
+                        if(isEarthquake) recorder.markEarthquake();
+                        try {
+                            recorder.recordTick(shownValues[0], shownValues[1], shownValues[2], chambers, stability[0], players);
+                        } catch(IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            }
+            return new GameRecordingReader(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+    //Vents start over after the reset with wider values for team games
+    private static RandomGame makeHalf(Random random, boolean isReset, int players) {
+        int minValue = MIN_STARTING_VENT_VALUE, maxValue = MAX_STARTING_VENT_VALUE;
+        if(isReset) {
+            minValue = players == 1 ? MIN_RESET_SOLO_VENT_VALUE : MIN_VENT_VALUE;
+            maxValue = players == 1 ? MAX_RESET_SOLO_VENT_VALUE : MAX_VENT_VALUE;
+        }
+        RandomGame game = new RandomGame(random, minValue, maxValue);
+        game.setSteered(true);
+        game.setDirectionChangeChance(DIRECTION_FLIP_CHANCE);
+        game.setEarthquakeChance(EARTHQUAKE_CHANCE);
+        return game;
+    }
+}
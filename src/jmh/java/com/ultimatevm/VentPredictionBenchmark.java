@@ -0,0 +1,89 @@
+package com.ultimatevm;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+//Replays full recorded games through the predicter the same way the plugin does
+//Games are recorded by ScriptedGame unless -p recording=<file.uvm> names real recordings
+//replayHalf reports ns/tick and (with -prof gc) allocations/tick for one half of the game
+//replayTick samples single ticks for p99 latency
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VentPredictionBenchmark {
+    public enum Phase {
+        PRE_RESET,
+        POST_RESET
+    }
+    private static final long GAME_SEED = 4444;
+    private static final int TICKS_PER_HALF = VentStatusTimeline.VM_GAME_RESET_TIME;
+
+    //Recordings are replayed as they are so the vent and player params only pick scripted games
+    @Param({""})
+    public String recording;
+
+    @Param({"PRE_RESET", "POST_RESET"})
+    public Phase phase;
+
+    @Param({"1", "2", "3"})
+    public int identifiedVents;
+
+    @Param({"1", "8"})
+    public int players;
+
+    private GameRecordingReader game;
+    private VentStatusPredicter predicter;
+    private StabilityTracker stabilityTracker;
+    private int startTick, tickIndex;
+
+    @Setup(Level.Trial)
+    public void setupGame() throws IOException {
+        game = recording.isEmpty() ? ScriptedGame.record(identifiedVents, players, GAME_SEED)
+                : new GameRecordingReader(Paths.get(recording));
+        startTick = phase == Phase.PRE_RESET ? 0 : TICKS_PER_HALF;
+        if(game.getNumTicks() < startTick + TICKS_PER_HALF)
+            throw new IOException("Recording " + recording + " ends before the " + phase + " half");
+    }
+
+    @Setup(Level.Invocation)
+    public void setupPredicter() {
+        //replayTick runs one tick per invocation so only restart once the half is over
+        if(predicter != null && tickIndex < startTick + TICKS_PER_HALF) return;
+        StabilityUpdateInfo.resetPlayers();
+        predicter = new VentStatusPredicter();
+        stabilityTracker = new StabilityTracker();
+        //Play out the first half untimed so the predicter resets like a real game
+        for(tickIndex = 0; tickIndex < startTick; ++tickIndex)
+            replayTick(tickIndex);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OperationsPerInvocation(TICKS_PER_HALF)
+    public void replayHalf(Blackhole blackhole) {
+        for(; tickIndex < startTick + TICKS_PER_HALF; ++tickIndex)
+            blackhole.consume(replayTick(tickIndex));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public int replayTick() {
+        return replayTick(tickIndex++);
+    }
+
+    //Also reads the future stability change on movement ticks like UltimateVolcanicMinePlugin.onGameTick
+    private int replayTick(int tick) {
+        game.replayTick(predicter, stabilityTracker, tick);
+        int futureChange = 0;
+        if(predicter.isMovementUpdateTick())
+            futureChange = predicter.getFutureStabilityChange(UltimateVolcanicMineConfig.PredictionScenario.WORST_CASE);
+        game.finishTick(predicter);
+        return futureChange;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ultimatevm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Accuracy and throughput totals of replayed games
+public class BatchReplayResult {
+    int numGames, numFailedGames, numTicks;
+    //Vents found in game and how many had a range predicted the tick before that contained their value
+    int numIdentifications, numPredicted, numCorrect;
+    long elapsedNanos;
+    //Only set for a single game
+    PredictionMetrics metrics;
+    //Recordings that couldn't be replayed and why
+    private final List<String> failedGameNames = new ArrayList<>();
+    private final List<Throwable> failureCauses = new ArrayList<>();
+
+    void add(BatchReplayResult result) {
+        numGames += result.numGames;
+        numFailedGames += result.numFailedGames;
+        numTicks += result.numTicks;
+        numIdentifications += result.numIdentifications;
+        numPredicted += result.numPredicted;
+        numCorrect += result.numCorrect;
+        failedGameNames.addAll(result.failedGameNames);
+        failureCauses.addAll(result.failureCauses);
+    }
+    void addFailedGame(String gameName, Throwable cause) {
+        ++numFailedGames;
+        failedGameNames.add(gameName);
+        failureCauses.add(cause);
+    }
+
+    public double getAccuracy() { return numPredicted == 0 ? 0 : (double)numCorrect / numPredicted; }
+    public double getCoverage() { return numIdentifications == 0 ? 0 : (double)numPredicted / numIdentifications; }
+    public double getGamesPerSecond() { return elapsedNanos == 0 ? 0 : numGames * 1e9 / elapsedNanos; }
+    public double getTicksPerSecond() { return elapsedNanos == 0 ? 0 : numTicks * 1e9 / elapsedNanos; }
+    public String toReport() {
+        StringBuilder failures = new StringBuilder();
+        for(int i = 0; i < failedGameNames.size(); ++i)
+            failures.append(String.format("  %s: %s%n", failedGameNames.get(i), failureCauses.get(i)));
+        return String.format("Games: %d (%d failed)%n", numGames, numFailedGames) + failures +
+                String.format("Ticks: %d%n", numTicks) +
+                String.format("Identified vents: %d, predicted: %d (%.1f%%)%n", numIdentifications, numPredicted, getCoverage() * 100) +
+                String.format("Predictions containing the identified value: %d (%.1f%%)%n", numCorrect, getAccuracy() * 100) +
+                String.format("Throughput: %.1f games/sec, %.0f ticks/sec over %.2f sec%n",
+                        getGamesPerSecond(), getTicksPerSecond(), elapsedNanos / 1e9);
+    }
+
+    //Accessors
+    public int getNumGames() { return numGames; }
+    public int getNumFailedGames() { return numFailedGames; }
+    public int getNumTicks() { return numTicks; }
+    public int getNumIdentifications() { return numIdentifications; }
+    public int getNumPredicted() { return numPredicted; }
+    public int getNumCorrect() { return numCorrect; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public final PredictionMetrics getMetrics() { return metrics; }
+    public final List<String> getFailedGameNames() { return failedGameNames; }
+    public final List<Throwable> getFailureCauses() { return failureCauses; }
+}
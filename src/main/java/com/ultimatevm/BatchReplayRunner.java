@@ -0,0 +1,111 @@
+package com.ultimatevm;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//Replays every recorded game in a directory on all cores and reports prediction accuracy and throughput
+//Run with ./gradlew replayGames -Pgames=<recording directory>
+//An optional csv path gets a row of PredictionMetrics for every game
+public class BatchReplayRunner {
+    public static final String RECORDING_EXTENSION = ".uvm";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length < 1) {
+            System.err.println("Usage: BatchReplayRunner <recording directory> [threads] [metrics csv]");
+            System.exit(1);
+        }
+        int numThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path metricsPath = args.length > 2 ? Paths.get(args[2]) : null;
+        BatchReplayResult result = run(findRecordings(Paths.get(args[0])), numThreads, metricsPath);
+        System.out.print(result.toReport());
+        for(int i = 0; i < result.getFailedGameNames().size(); ++i) {
+            System.err.println("Failed to replay " + result.getFailedGameNames().get(i));
+            result.getFailureCauses().get(i).printStackTrace();
+        }
+    }
+    public static List<Path> findRecordings(Path directory) throws IOException {
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(RECORDING_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    public static BatchReplayResult run(List<Path> recordings, int numThreads) throws IOException, InterruptedException {
+        return run(recordings, numThreads, null);
+    }
+    public static BatchReplayResult run(List<Path> recordings, int numThreads, Path metricsPath) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numThreads));
+        long startTime = System.nanoTime();
+        try {
+            List<Future<BatchReplayResult>> games = new ArrayList<>();
+            for(Path path : recordings)
+                games.add(executor.submit(() -> replayGame(path)));
+            BatchReplayResult total = new BatchReplayResult();
+            for(int i = 0; i < games.size(); ++i) {
+                try {
+                    BatchReplayResult result = games.get(i).get();
+                    total.add(result);
+                    //Rows are added in recording order once each game is done
+                    if(metricsPath != null)
+                        result.metrics.appendCsv(metricsPath, recordings.get(i).getFileName().toString());
+                } catch(ExecutionException e) {
+                    total.addFailedGame(recordings.get(i).getFileName().toString(), e.getCause());
+                }
+            }
+            total.elapsedNanos = System.nanoTime() - startTime;
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    public static BatchReplayResult replayGame(Path path) throws IOException {
+        GameRecordingReader reader;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            //The mapping stays valid after the channel is closed
+            reader = new GameRecordingReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        return replayGame(reader);
+    }
+    //Each game runs on one thread with its own predicter and player count
+    public static BatchReplayResult replayGame(GameRecordingReader reader) {
+        StabilityUpdateInfo.resetPlayers();
+        BatchReplayResult result = new BatchReplayResult();
+        result.numGames = 1;
+        result.numTicks = reader.getNumTicks();
+        result.metrics = new PredictionMetrics();
+        VentStatusPredicter gamePredicter = new VentStatusPredicter();
+        gamePredicter.setMetrics(result.metrics);
+
+        //Each vent's prediction from the previous tick
+        VentStatus[] previousVents = new StatusState().getVents();
+        reader.replay(gamePredicter, (tick, predicter) -> {
+            VentStatus[] vents = predicter.getDisplayState().getVents();
+            for(int i = 0; i < vents.length; ++i) {
+                if(vents[i].isIdentified() && !previousVents[i].isIdentified())
+                    checkPrediction(result, previousVents[i], vents[i].getActualValue());
+                previousVents[i].setEqualTo(vents[i]);
+            }
+        });
+        return result;
+    }
+    private static void checkPrediction(BatchReplayResult result, VentStatus predictedVent, int value) {
+        ++result.numIdentifications;
+        if(!predictedVent.isRangeDefined()) return;
+        ++result.numPredicted;
+        //The vent may have moved on the tick it was identified
+        if(predictedVent.isWithinRange(value - VentStatus.BASE_MOVE_RATE, value + VentStatus.BASE_MOVE_RATE))
+            ++result.numCorrect;
+    }
+}
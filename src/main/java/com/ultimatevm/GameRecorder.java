@@ -0,0 +1,57 @@
+package com.ultimatevm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Writes the varbits the predicter reads each game tick so real games can be replayed later
+//File is an 8 byte header followed by one fixed width record per tick after the game starts
+public class GameRecorder implements Closeable {
+    public static final int MAGIC = 0x55564D52; //"UVMR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    //Vent A, vent B, vent C, chambers, stability, players, flags, unused
+    public static final int RECORD_SIZE = 8;
+    public static final int FLAG_EARTHQUAKE = 1;
+    private static final int BUFFERED_RECORDS = 512;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFERED_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+    private int pendingFlags = 0, numTicks = 0;
+
+    public GameRecorder(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putShort((short)VERSION).putShort((short)RECORD_SIZE);
+    }
+    //Earthquakes are marked before the tick the predicter handles them on
+    public void markEarthquake() {
+        pendingFlags |= FLAG_EARTHQUAKE;
+    }
+    public void recordTick(int ventA, int ventB, int ventC, int chambers, int stability, int players) throws IOException {
+        if(buffer.remaining() < RECORD_SIZE) flush();
+        buffer.put((byte)ventA).put((byte)ventB).put((byte)ventC).put((byte)chambers);
+        buffer.put((byte)stability).put((byte)players).put((byte)pendingFlags).put((byte)0);
+        pendingFlags = 0;
+        ++numTicks;
+    }
+    public void flush() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    //Accessors
+    public int getNumTicks() { return numTicks; }
+}
@@ -0,0 +1,78 @@
+package com.ultimatevm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.ultimatevm.GameRecorder.*;
+
+//Reads a game written by GameRecorder and feeds it to a predicter the same way the plugin does
+public class GameRecordingReader {
+    public interface TickListener {
+        //Called after the predicter handled the tick and before it moves to the next one
+        void onTick(int recordIndex, VentStatusPredicter predicter);
+    }
+
+    private final ByteBuffer records;
+    private final int recordSize, numTicks;
+
+    public GameRecordingReader(Path path) throws IOException {
+        this(readFile(path));
+    }
+    public GameRecordingReader(ByteBuffer buffer) throws IOException {
+        ByteBuffer header = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC)
+            throw new IOException("Not a game recording");
+        int version = header.getShort();
+        recordSize = header.getShort();
+        if(version != VERSION || recordSize < RECORD_SIZE)
+            throw new IOException("Unsupported game recording version " + version);
+        records = header.slice().order(ByteOrder.LITTLE_ENDIAN);
+        numTicks = records.remaining() / recordSize;
+    }
+    private static ByteBuffer readFile(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int)channel.size());
+            while(buffer.hasRemaining() && channel.read(buffer) != -1);
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    public void replay(VentStatusPredicter predicter) {
+        replay(predicter, null);
+    }
+    public void replay(VentStatusPredicter predicter, TickListener listener) {
+        StabilityTracker stabilityTracker = new StabilityTracker();
+        for(int i = 0; i < numTicks; ++i) {
+            replayTick(predicter, stabilityTracker, i);
+            if(listener != null) listener.onTick(i, predicter);
+            finishTick(predicter);
+        }
+    }
+    //Replays ticks one at a time - every tick is finished before the next one is replayed
+    public void replayTick(VentStatusPredicter predicter, StabilityTracker stabilityTracker, int tick) {
+        if(isEarthquake(tick)) predicter.markEarthquakeEvent();
+        StabilityUpdateInfo.setNumPlayers(getNumPlayers(tick));
+        predicter.ingest(getVentValue(tick, 0), getVentValue(tick, 1), getVentValue(tick, 2), getChambers(tick));
+        if(stabilityTracker.updateStability(getStability(tick)))
+            predicter.makeStatusState(stabilityTracker.getCurrentChange());
+        predicter.updateDisplayState();
+    }
+    public void finishTick(VentStatusPredicter predicter) {
+        predicter.getTimeline().updateTick();
+        if(predicter.getCurrentTick() > VentStatusTimeline.VM_GAME_RESET_TIME) predicter.reset();
+    }
+
+    //Accessors
+    public int getNumTicks() { return numTicks; }
+    public int getVentValue(int tick, int index) { return getByte(tick, index); }
+    public int getChambers(int tick) { return getByte(tick, 3); }
+    public int getStability(int tick) { return getByte(tick, 4); }
+    public int getNumPlayers(int tick) { return getByte(tick, 5); }
+    public boolean isEarthquake(int tick) { return (getByte(tick, 6) & FLAG_EARTHQUAKE) != 0; }
+    private int getByte(int tick, int offset) { return records.get(tick * recordSize + offset) & 0xFF; }
+}
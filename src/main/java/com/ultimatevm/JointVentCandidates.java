@@ -0,0 +1,92 @@
+package com.ultimatevm;
+
+//Every pair of stability influences two unknown vents could have had for a stability update
+//One solve covers every rng mod at once and later narrowing intersects pairs instead of solving again
+public class JointVentCandidates {
+    public static final int NUM_POINTS = (int)VentStatus.VENT_STABILITY_WEIGHT + 1;
+    public static final int ALL_POINTS = (1 << NUM_POINTS) - 1;
+    //Bit y of row x is set if the first vent can give x points while the second gives y
+    private final int[] pairs = new int[NUM_POINTS];
+
+    //Pairs whose points add up to anything from minPoints to maxPoints
+    public JointVentCandidates(int minPoints, int maxPoints) {
+        for(int x = 0; x < NUM_POINTS; ++x) {
+            int minY = Math.max(0, minPoints - x), maxY = Math.min(NUM_POINTS - 1, maxPoints - x);
+            if(minY > maxY) continue;
+            pairs[x] = ((1 << (maxY + 1)) - 1) & ~((1 << minY) - 1);
+        }
+    }
+    public JointVentCandidates(JointVentCandidates candidates) {
+        System.arraycopy(candidates.pairs, 0, pairs, 0, NUM_POINTS);
+    }
+
+    //Drop pairs either vent can no longer give
+    public void retainPoints(int firstPoints, int secondPoints) {
+        for(int x = 0; x < NUM_POINTS; ++x)
+            pairs[x] = (firstPoints & (1 << x)) != 0 ? pairs[x] & secondPoints : 0;
+    }
+    public void retainValues(VentRangeMask first, VentRangeMask second) {
+        retainPoints(getPoints(first), getPoints(second));
+    }
+    public void retain(JointVentCandidates candidates) {
+        for(int x = 0; x < NUM_POINTS; ++x)
+            pairs[x] &= candidates.pairs[x];
+    }
+
+    public boolean isEmpty() {
+        for(int row : pairs) {
+            if(row != 0) return false;
+        }
+        return true;
+    }
+    public boolean contains(int firstPoints, int secondPoints) {
+        if(firstPoints < 0 || firstPoints >= NUM_POINTS || secondPoints < 0 || secondPoints >= NUM_POINTS) return false;
+        return (pairs[firstPoints] & (1 << secondPoints)) != 0;
+    }
+    public int getNumPairs() {
+        int numPairs = 0;
+        for(int row : pairs) numPairs += Integer.bitCount(row);
+        return numPairs;
+    }
+    //Points each vent can still give as a bit per point count
+    public int getFirstPoints() {
+        int points = 0;
+        for(int x = 0; x < NUM_POINTS; ++x) {
+            if(pairs[x] != 0) points |= 1 << x;
+        }
+        return points;
+    }
+    public int getSecondPoints() {
+        int points = 0;
+        for(int row : pairs) points |= row;
+        return points;
+    }
+    //Points the second vent can give while the first gives firstPoints
+    public int getSecondPoints(int firstPoints) {
+        if(firstPoints < 0 || firstPoints >= NUM_POINTS) return 0;
+        return pairs[firstPoints];
+    }
+    public VentRangeMask getFirstValues() { return getValues(getFirstPoints()); }
+    public VentRangeMask getSecondValues() { return getValues(getSecondPoints()); }
+
+    //Point counts any of the values give
+    public static int getPoints(VentRangeMask values) {
+        int points = 0;
+        for(int p = 0; p < NUM_POINTS; ++p) {
+            if(values.isWithinRange(VentStatus.getLowerRangeStart(p), VentStatus.getLowerRangeEnd(p))
+                    || values.isWithinRange(VentStatus.getUpperRangeStart(p), VentStatus.getUpperRangeEnd(p)))
+                points |= 1 << p;
+        }
+        return points;
+    }
+    //Every value that gives one of the point counts
+    public static VentRangeMask getValues(int points) {
+        VentRangeMask values = new VentRangeMask();
+        for(int p = 0; p < NUM_POINTS; ++p) {
+            if((points & (1 << p)) == 0) continue;
+            values.addRange(VentStatus.getLowerRangeStart(p), VentStatus.getLowerRangeEnd(p));
+            values.addRange(VentStatus.getUpperRangeStart(p), VentStatus.getUpperRangeEnd(p));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,209 @@
+package com.ultimatevm;
+
+import static com.ultimatevm.StatusState.NUM_VENTS;
+import static com.ultimatevm.VentStatus.*;
+
+//Every pair of values the two unknown vents can still be while exactly one vent is identified
+//Each value of the first unknown vent keeps a mask of the second's values so the pairs are
+//moved with the identified vent and cut down by every stability update without losing how they depend on each other
+public class JointVentTracker {
+    static private volatile boolean isEnabled = false;
+    static public void setEnabled(boolean enabled) { isEnabled = enabled; }
+    static public boolean isEnabled() { return isEnabled; }
+
+    private static final int DIRECTION_UP = 1;
+    private static final int DIRECTION_DOWN = 2;
+    private static final VentRangeMask SLOW_VALUES = new VentRangeMask();
+    private static final VentRangeMask FAST_VALUES = new VentRangeMask(MIN_VENT_VALUE, MAX_VENT_VALUE);
+    static {
+        for(int value = MIN_VENT_VALUE; value <= MAX_VENT_VALUE; ++value) {
+            if(getMovementInfluenceOfValue(value) != 0) SLOW_VALUES.addRange(value, value);
+        }
+        FAST_VALUES.remove(SLOW_VALUES);
+    }
+
+    //Row x holds every second vent value possible while the first vent is x
+    private VentRangeMask[] rows = makeRows();
+    private VentRangeMask[] movedRows = makeRows();
+    private final VentRangeMask scratch = new VentRangeMask();
+    private final int[] moveValues = new int[NUM_VENTS], moveDirections = new int[NUM_VENTS];
+    private int knownIndex = -1, firstIndex, secondIndex, knownValue;
+    //Directions each vent could have moved in - this tick and since the last movement
+    private final int[] recentDirections = new int[NUM_VENTS];
+    private final int[] windowDirections = new int[NUM_VENTS];
+
+    public void clear() {
+        knownIndex = -1;
+    }
+    public void updateVentStatus(StatusState state, int[] changeStates) {
+        VentStatus[] vents = state.getVents();
+        for(int i = 0; i < NUM_VENTS; ++i) {
+            //The chambers may have changed just before or after the vents moved
+            recentDirections[i] = getDirectionBits(vents[i].getDirection());
+            if((changeStates[i] & VentChangeStateFlag.DIRECTION_CHANGE.bitFlag()) != 0)
+                recentDirections[i] = DIRECTION_UP | DIRECTION_DOWN;
+            windowDirections[i] |= recentDirections[i];
+        }
+        if(state.getNumIdentifiedVents() != 1) {
+            clear();
+            return;
+        }
+        int index = 0;
+        while(!vents[index].isIdentified()) ++index;
+        int value = vents[index].getActualValue();
+        int moveFlags = VentChangeStateFlag.ONE_CHANGE.bitFlag() | VentChangeStateFlag.TWO_CHANGE.bitFlag();
+        if(index != knownIndex || (value != knownValue && (changeStates[index] & moveFlags) == 0)) {
+            start(index, value);
+            return;
+        }
+        if(value == knownValue) return;
+        moveRows(value, recentDirections, false);
+        knownValue = value;
+    }
+    //Vents may have moved without the identified vent showing it
+    public void updateEstimatedMovement() {
+        if(!isActive()) return;
+        moveRows(knownValue, windowDirections, true);
+    }
+    //Keep the pairs that could give the stability change for any rng mod
+    public void updateStability(int change) {
+        if(!isActive()) return;
+        int knownPoints = getStabilityInfluence(knownValue);
+        JointVentCandidates candidates = new JointVentCandidates(
+                StatusState.getTotalVentUpdate(change - 1) - knownPoints,
+                StatusState.getTotalVentUpdate(change - StabilityUpdateInfo.getMinRNGVariation()) - knownPoints);
+        VentRangeMask[] secondValues = new VentRangeMask[JointVentCandidates.NUM_POINTS];
+        for(int x = MIN_VENT_VALUE; x <= MAX_VENT_VALUE; ++x) {
+            if(rows[x].isEmpty()) continue;
+            int points = getStabilityInfluence(x);
+            if(secondValues[points] == null)
+                secondValues[points] = JointVentCandidates.getValues(candidates.getSecondPoints(points));
+            rows[x].retain(secondValues[points]);
+        }
+        if(isEmpty()) clear();
+    }
+    //Clip the unknown vents' ranges to the values still paired up - left alone if they don't overlap
+    public void narrowRanges(StatusState state) {
+        if(!isActive()) return;
+        narrowRange(state.getVents()[firstIndex], getFirstValues());
+        narrowRange(state.getVents()[secondIndex], getSecondValues());
+    }
+
+    //Helpers
+    private void start(int index, int value) {
+        knownIndex = index;
+        firstIndex = index == 0 ? 1 : 0;
+        secondIndex = index == 2 ? 1 : 2;
+        knownValue = value;
+        for(VentRangeMask row : rows) row.setRange(MIN_VENT_VALUE, MAX_VENT_VALUE);
+        resetWindowDirections();
+    }
+    private void moveRows(int movedKnownValue, int[] directions, boolean keepUnmoved) {
+        for(int x = MIN_VENT_VALUE; x <= MAX_VENT_VALUE; ++x) {
+            if(keepUnmoved) movedRows[x].setEqualTo(rows[x]);
+            else movedRows[x].clear();
+        }
+        for(int x = MIN_VENT_VALUE; x <= MAX_VENT_VALUE; ++x) {
+            if(rows[x].isEmpty()) continue;
+            for(int firstDirection = -1; firstDirection <= 1; firstDirection += 2) {
+                if((directions[firstIndex] & getDirectionBits(firstDirection)) == 0) continue;
+                for(int secondDirection = -1; secondDirection <= 1; secondDirection += 2) {
+                    if((directions[secondIndex] & getDirectionBits(secondDirection)) == 0) continue;
+                    for(int knownDirection = -1; knownDirection <= 1; knownDirection += 2) {
+                        if((directions[knownIndex] & getDirectionBits(knownDirection)) == 0) continue;
+                        moveRow(x, firstDirection, secondDirection, knownDirection, movedKnownValue);
+                    }
+                }
+            }
+        }
+        VentRangeMask[] temp = rows;
+        rows = movedRows;
+        movedRows = temp;
+        resetWindowDirections();
+        if(isEmpty()) clear();
+    }
+    //Moves every pair in row x the way the vents move in order - values before movement slow the vents below them
+    private void moveRow(int x, int firstDirection, int secondDirection, int knownDirection, int movedKnownValue) {
+        int[] values = moveValues, directions = moveDirections;
+        values[firstIndex] = x;
+        values[knownIndex] = knownValue;
+        directions[firstIndex] = firstDirection;
+        directions[secondIndex] = secondDirection;
+        directions[knownIndex] = knownDirection;
+        //Second vent values only matter by whether they are slowed
+        for(int slow = 0; slow <= 1; ++slow) {
+            VentRangeMask secondValues = slow == 1 ? SLOW_VALUES : FAST_VALUES;
+            values[secondIndex] = secondValues.getLowerBoundStart();
+            int outsideInfluence = 0, secondMoveRate = 0, movedX = x, movedKnown = knownValue;
+            for(int i = 0; i < NUM_VENTS; ++i) {
+                int selfInfluence = getMovementInfluenceOfValue(values[i]);
+                int moved = capVentValue(values[i] + Math.max(0, BASE_MOVE_RATE + outsideInfluence + selfInfluence) * directions[i]);
+                if(i == firstIndex) movedX = moved;
+                else if(i == knownIndex) movedKnown = moved;
+                else secondMoveRate = BASE_MOVE_RATE + outsideInfluence;
+                outsideInfluence += selfInfluence;
+            }
+            if(movedKnown != movedKnownValue) continue;
+            scratch.setEqualTo(rows[x]);
+            scratch.retain(secondValues);
+            scratch.updateMovement(secondDirection, secondMoveRate, secondMoveRate);
+            movedRows[movedX].add(scratch);
+        }
+    }
+    private void resetWindowDirections() {
+        System.arraycopy(recentDirections, 0, windowDirections, 0, NUM_VENTS);
+    }
+    private static void narrowRange(VentStatus vent, VentRangeMask values) {
+        if(vent.isIdentified() || !vent.isRangeDefined()) return;
+        VentRangeMask mask = new VentRangeMask(vent);
+        mask.retain(values);
+        if(!mask.isEmpty()) mask.applyTo(vent);
+    }
+    //Vents without a direction yet could be moving either way
+    private static int getDirectionBits(int direction) {
+        if(direction > 0) return DIRECTION_UP;
+        if(direction < 0) return DIRECTION_DOWN;
+        return DIRECTION_UP | DIRECTION_DOWN;
+    }
+    private static int capVentValue(int value) { return Math.min(MAX_VENT_VALUE, Math.max(MIN_VENT_VALUE, value)); }
+    private static VentRangeMask[] makeRows() {
+        VentRangeMask[] rows = new VentRangeMask[VentRangeMask.NUM_VALUES];
+        for(int i = 0; i < rows.length; ++i) rows[i] = new VentRangeMask();
+        return rows;
+    }
+    private boolean isEmpty() {
+        for(VentRangeMask row : rows) {
+            if(!row.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    public boolean isActive() { return knownIndex != -1; }
+    public boolean contains(int firstValue, int secondValue) {
+        if(!isActive() || firstValue < MIN_VENT_VALUE || firstValue > MAX_VENT_VALUE) return false;
+        return rows[firstValue].contains(secondValue);
+    }
+    public int getNumPairs() {
+        if(!isActive()) return 0;
+        int numPairs = 0;
+        for(VentRangeMask row : rows) numPairs += row.getNumValues();
+        return numPairs;
+    }
+    public VentRangeMask getFirstValues() {
+        VentRangeMask values = new VentRangeMask();
+        if(!isActive()) return values;
+        for(int x = MIN_VENT_VALUE; x <= MAX_VENT_VALUE; ++x) {
+            if(!rows[x].isEmpty()) values.addRange(x, x);
+        }
+        return values;
+    }
+    public VentRangeMask getSecondValues() {
+        VentRangeMask values = new VentRangeMask();
+        if(!isActive()) return values;
+        for(VentRangeMask row : rows) values.add(row);
+        return values;
+    }
+    public int getKnownIndex() { return knownIndex; }
+    public int getFirstIndex() { return firstIndex; }
+    public int getSecondIndex() { return secondIndex; }
+}
@@ -0,0 +1,124 @@
+package com.ultimatevm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+
+//Advances every rng mod hypothesis cache at once on a shared pool
+//Replays only read the timeline and are applied in the sequential search order once they all finish
+//so results don't depend on which thread finished first
+public class ParallelPredictionEvaluator {
+    static private volatile boolean isEnabled = false;
+    static private ForkJoinPool pool = null;
+    static public synchronized void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+        if(!enabled && pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+    static public boolean isEnabled() { return isEnabled; }
+    static private synchronized ForkJoinPool getPool() {
+        //Leave a core for the client thread
+        if(pool == null) pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        return pool;
+    }
+
+    private final VentStatusTimeline timeline;
+    private ReplayFork[] forks = new ReplayFork[0];
+    private StatusState predictionState;
+    private boolean isStabilityChangeModified;
+
+    ParallelPredictionEvaluator(VentStatusTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    //Returns the index of the next rng mod the sequential search still has to try or -1 if it's done
+    int evaluate(StabilityUpdateInfo initialStabUpdate) {
+        predictionState = null;
+        isStabilityChangeModified = false;
+        int numMods = StabilityUpdateInfo.getMaxRNGPossibleSize();
+        //Caches are picked by the timeline's initial update so forks can only test that one
+        if(numMods < 2 || initialStabUpdate != timeline.initialStabInfo) return numMods - 1;
+        prepareForks(initialStabUpdate, numMods);
+
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[numMods];
+        int numPlayers = StabilityUpdateInfo.getNumPlayers();
+        for(int i = numMods - 1; i >= 0; --i) {
+            ReplayFork fork = forks[i];
+            try {
+                tasks[i] = getPool().submit(() -> {
+                    //Pool threads are shared by every game so take this game's player count
+                    StabilityUpdateInfo.restorePlayers(numPlayers);
+                    timeline.replayCache(fork.cache, fork);
+                });
+            } catch(RejectedExecutionException e) {
+                //Pool was shut down by a config change - replay here instead
+                timeline.replayCache(fork.cache, fork);
+            }
+        }
+        //Every fork has to finish before the timeline can change
+        for(ForkJoinTask<?> task : tasks) {
+            if(task != null) task.join();
+        }
+        //Results are used in the sequential search order and only the mods it tries keep their changes
+        boolean isInfoCommitted = false;
+        for(int i = numMods - 1; i >= 0; --i) {
+            ReplayFork fork = forks[i];
+            initialStabUpdate.setRNGUpdateMod(fork.rngMod);
+            if(fork.isInitialTickReplayed) {
+                initialStabUpdate.calcStabilityChange();
+                isStabilityChangeModified = true;
+            }
+            if(fork.commitInfo()) {
+                isStabilityChangeModified = true;
+                isInfoCommitted = true;
+            }
+            predictionState = fork.cache.predictedState;
+            int numBacktracks = timeline.getNumBacktracks();
+            timeline.finishReplay(predictionState);
+            boolean isBacktracked = numBacktracks != timeline.getNumBacktracks();
+            if(predictionState.areRangesDefined()) {
+                if(!isBacktracked) restoreUntriedForks(i);
+                return -1;
+            }
+            //Backtracking starts every cache over and the later forks replayed without this fork's changes
+            //so the remaining mods are replayed on this thread
+            if(isBacktracked) return i - 1;
+            if(isInfoCommitted) {
+                restoreUntriedForks(i);
+                return i - 1;
+            }
+        }
+        return -1;
+    }
+    //Forks the sequential search never reached put their caches back exactly as they were
+    //so they replay with whatever the tried mods changed once the search gets to them
+    private void restoreUntriedForks(int lastTriedMod) {
+        for(int i = lastTriedMod - 1; i >= 0; --i)
+            forks[i].restoreCache();
+    }
+    private void prepareForks(StabilityUpdateInfo initialStabUpdate, int numMods) {
+        if(forks.length < numMods) {
+            ReplayFork[] newForks = new ReplayFork[numMods];
+            for(int i = 0; i < numMods; ++i)
+                newForks[i] = i < forks.length ? forks[i] : new ReplayFork(1 - i);
+            forks = newForks;
+        }
+        //The sequential search keeps recalculating one initial update so each fork
+        //gets a copy of it as it would be once that search reaches its mod
+        StabilityUpdateInfo chainedInfo = new StabilityUpdateInfo(initialStabUpdate);
+        for(int i = numMods - 1; i >= 0; --i) {
+            ReplayFork fork = forks[i];
+            TimelineCache cache = timeline.getCacheForMod(fork.rngMod);
+            boolean isInitialTickReplayed = timeline.willReplayTick(cache, initialStabUpdate.getTickTimeStamp());
+            chainedInfo.setRNGUpdateMod(fork.rngMod);
+            if(isInitialTickReplayed) chainedInfo.calcStabilityChange();
+            fork.prepare(cache, initialStabUpdate, new StabilityUpdateInfo(chainedInfo), isInitialTickReplayed);
+        }
+    }
+
+    //Accessors
+    public StatusState getPredictionState() { return predictionState; }
+    public boolean isStabilityChangeModified() { return isStabilityChangeModified; }
+}
@@ -0,0 +1,108 @@
+package com.ultimatevm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.ultimatevm.StatusState.NUM_VENTS;
+
+//Collects how quickly one game's predictions converge so predicter changes can be compared
+public class PredictionMetrics {
+    public static final String CSV_HEADER = "game,ticks," +
+            "preResetSingleA,preResetSingleB,preResetSingleC,postResetSingleA,postResetSingleB,postResetSingleC," +
+            "prunes,maxPossibilities,meanPossibilities,invalidKept,evictions," +
+            "rngSearches,rngModsTried,undefinedSearches,backtracks,possibilitiesPerTick";
+    private static final int NUM_HALVES = 2;
+
+    //Ticks from the start of each half until a vent's prediction was a single value or -1 if it never was
+    private final int[][] ticksToSingleValue = new int[NUM_HALVES][NUM_VENTS];
+    private int numTicks, numBacktracks;
+    //Possibilities held each time invalid ones are pruned and how often an invalid one had to be kept
+    private int numPrunes, maxPossibilities, numInvalidKept;
+    //Possibilities dropped to stay within the bound
+    private int numEvictions;
+    private long totalPossibilities;
+    //Possibilities the current cache held at the end of every tick
+    private final int[] possibilitiesPerTick = new int[VentStatusTimeline.VM_GAME_FULL_TIME];
+    //Stability update rng mod searches
+    private int numRNGSearches, numRNGModsTried, numUndefinedSearches;
+
+    public PredictionMetrics() {
+        for(int[] half : ticksToSingleValue) {
+            for(int i = 0; i < half.length; ++i)
+                half[i] = -1;
+        }
+    }
+
+    void recordDisplayState(VentStatusTimeline timeline, StatusState displayState) {
+        numTicks = Math.max(numTicks, timeline.getCurrentTick() + 1);
+        numBacktracks = timeline.getNumBacktracks();
+        if(timeline.getCurrentTick() < possibilitiesPerTick.length)
+            possibilitiesPerTick[timeline.getCurrentTick()] = timeline.getNumPossibleStates();
+        int[] half = ticksToSingleValue[timeline.isHasReset() ? 1 : 0];
+        for(int i = 0; i < NUM_VENTS; ++i) {
+            VentStatus vent = displayState.getVents()[i];
+            if(half[i] != -1 || vent.isIdentified() || !vent.isRangeDefined()) continue;
+            if(vent.isLowerBoundSingleValue() && !vent.isTwoSeperateValues())
+                half[i] = timeline.getCurrentTick() - timeline.getCurrentStartingTick();
+        }
+    }
+    //Forked replays prune on pool threads
+    synchronized void recordPrune(int numPossibilities, boolean isInvalidKept) {
+        ++numPrunes;
+        totalPossibilities += numPossibilities;
+        maxPossibilities = Math.max(maxPossibilities, numPossibilities);
+        if(isInvalidKept) ++numInvalidKept;
+    }
+    synchronized void recordEviction() { ++numEvictions; }
+    void recordRNGSearch(int numModsTried, boolean isDefined) {
+        ++numRNGSearches;
+        numRNGModsTried += numModsTried;
+        if(!isDefined) ++numUndefinedSearches;
+    }
+
+    public String toCsvRow(String game) {
+        StringBuilder builder = new StringBuilder(game).append(',').append(numTicks);
+        for(int[] half : ticksToSingleValue) {
+            for(int ticks : half)
+                builder.append(',').append(ticks);
+        }
+        builder.append(',').append(numPrunes)
+                .append(',').append(maxPossibilities)
+                .append(',').append(String.format("%.2f", getMeanPossibilities()))
+                .append(',').append(numInvalidKept)
+                .append(',').append(numEvictions)
+                .append(',').append(numRNGSearches)
+                .append(',').append(numRNGModsTried)
+                .append(',').append(numUndefinedSearches)
+                .append(',').append(numBacktracks)
+                .append(',');
+        //One space separated count per tick so the row stays a single csv field
+        for(int tick = 0; tick < Math.min(numTicks, possibilitiesPerTick.length); ++tick) {
+            if(tick > 0) builder.append(' ');
+            builder.append(possibilitiesPerTick[tick]);
+        }
+        return builder.toString();
+    }
+    //Adds a row for this game and a header if the file is new
+    public void appendCsv(Path path, String game) throws IOException {
+        String rows = (Files.exists(path) ? "" : CSV_HEADER + System.lineSeparator()) + toCsvRow(game) + System.lineSeparator();
+        Files.write(path, rows.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    //Accessors
+    public int getTicksToSingleValue(boolean isPostReset, int ventIndex) { return ticksToSingleValue[isPostReset ? 1 : 0][ventIndex]; }
+    public int getNumTicks() { return numTicks; }
+    public int getNumBacktracks() { return numBacktracks; }
+    public int getPossibilitiesAtTick(int tick) { return possibilitiesPerTick[tick]; }
+    public synchronized int getNumPrunes() { return numPrunes; }
+    public synchronized int getMaxPossibilities() { return maxPossibilities; }
+    public synchronized double getMeanPossibilities() { return numPrunes == 0 ? 0 : (double)totalPossibilities / numPrunes; }
+    public synchronized int getNumInvalidKept() { return numInvalidKept; }
+    public synchronized int getNumEvictions() { return numEvictions; }
+    public int getNumRNGSearches() { return numRNGSearches; }
+    public int getNumRNGModsTried() { return numRNGModsTried; }
+    public int getNumUndefinedSearches() { return numUndefinedSearches; }
+}
@@ -0,0 +1,36 @@
+package com.ultimatevm;
+
+//Copy of the predicter's results at the end of a tick that can be read from any thread
+public class PredictionSnapshot {
+    private final StatusState displayState;
+    private final int tick;
+    private final boolean isMovementUpdateTick;
+    //Future changes by prediction scenario - only calculated on movement update ticks
+    private final int[] futureStabilityChanges;
+
+    PredictionSnapshot(VentStatusPredicter predicter, int[] futureStabilityChanges) {
+        displayState = new StatusState(predicter.getDisplayState());
+        tick = predicter.getCurrentTick();
+        isMovementUpdateTick = predicter.isMovementUpdateTick();
+        this.futureStabilityChanges = futureStabilityChanges.clone();
+    }
+    //Nothing predicted on this tick
+    PredictionSnapshot(int tick, int[] futureStabilityChanges) {
+        displayState = new StatusState();
+        this.tick = tick;
+        isMovementUpdateTick = false;
+        this.futureStabilityChanges = futureStabilityChanges.clone();
+    }
+
+    public String getVentStatusText(int index, String startingText) {
+        return VentStatusPredicter.getVentStatusText(displayState, index, startingText);
+    }
+    public int getFutureStabilityChange(UltimateVolcanicMineConfig.PredictionScenario scenario) {
+        return futureStabilityChanges[scenario.ordinal()];
+    }
+
+    //Accessors
+    public final StatusState getDisplayState() { return displayState; }
+    public int getTick() { return tick; }
+    public boolean isMovementUpdateTick() { return isMovementUpdateTick; }
+}
@@ -0,0 +1,47 @@
+package com.ultimatevm;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+//One rng mod hypothesis replaying its own cache off the client thread
+//Stability updates the replay would change are copied first so shared updates are only read
+public class ReplayFork {
+    final int rngMod;
+    TimelineCache cache;
+    boolean isInitialTickReplayed;
+    //Cache as it was before the replay
+    private final TimelineCacheSnapshot startSnapshot = new TimelineCacheSnapshot();
+    private final IdentityHashMap<StabilityUpdateInfo, StabilityUpdateInfo> infoCopies = new IdentityHashMap<>();
+    private final ArrayList<StabilityUpdateInfo> changedInfo = new ArrayList<>();
+
+    ReplayFork(int rngMod) {
+        this.rngMod = rngMod;
+    }
+    //The initial update is always a copy since every hypothesis tests its own mod on it
+    void prepare(TimelineCache cache, StabilityUpdateInfo initialInfo, StabilityUpdateInfo initialCopy, boolean isInitialTickReplayed) {
+        this.cache = cache;
+        this.isInitialTickReplayed = isInitialTickReplayed;
+        startSnapshot.save(cache);
+        infoCopies.clear();
+        changedInfo.clear();
+        infoCopies.put(initialInfo, initialCopy);
+    }
+    StabilityUpdateInfo getInfo(StabilityUpdateInfo info, boolean isChanged) {
+        if(info == null) return null;
+        StabilityUpdateInfo copy = infoCopies.get(info);
+        if(isChanged && copy == null) {
+            copy = new StabilityUpdateInfo(info);
+            infoCopies.put(info, copy);
+        }
+        if(isChanged && !changedInfo.contains(info)) changedInfo.add(info);
+        return copy == null ? info : copy;
+    }
+    //Undo the replay for a mod the sequential search never reached
+    void restoreCache() { startSnapshot.restore(cache); }
+    //Apply the replay's changes to the shared updates - returns true if there were any
+    boolean commitInfo() {
+        for(StabilityUpdateInfo info : changedInfo)
+            info.setEqualTo(infoCopies.get(info));
+        return !changedInfo.isEmpty();
+    }
+}
@@ -0,0 +1,50 @@
+package com.ultimatevm;
+
+import static com.ultimatevm.VentStatus.*;
+
+//Movement influence a vent had before moving onto each value for every direction and outside influence
+//Backtracking looks up the influence instead of working out both move hypotheses again each tick
+public class ReverseMovementTable {
+    //Only influences of -1 and 0 from the vents above are ever reversed - anything lower keeps the value
+    public static final int MIN_OUTSIDE_INFLUENCE = -2;
+    private static final int NUM_DIRECTIONS = 3;
+    private static final int NUM_OUTSIDE_INFLUENCES = 1 - MIN_OUTSIDE_INFLUENCE;
+
+    private static final int[] reversedInfluences = new int[NUM_DIRECTIONS * NUM_OUTSIDE_INFLUENCES * VentRangeMask.NUM_VALUES];
+    static {
+        for(int direction = -1; direction <= 1; ++direction) {
+            for(int outside = MIN_OUTSIDE_INFLUENCE; outside <= 0; ++outside) {
+                for(int value = MIN_VENT_VALUE; value <= MAX_VENT_VALUE; ++value)
+                    reversedInfluences[getIndex(value, direction, outside)] = calcReversedInfluence(value, direction, outside);
+            }
+        }
+    }
+
+    //Movement influence the vent had before moving onto value - STARTING_VENT_VALUE when it can't be told apart
+    public static int getReversedInfluence(int value, int direction, int outsideInfluence) {
+        if(!isInTable(value, direction, outsideInfluence)) return calcReversedInfluence(value, direction, outsideInfluence);
+        return reversedInfluences[getIndex(value, direction, outsideInfluence)];
+    }
+
+    //Helpers
+    private static int calcReversedInfluence(int value, int direction, int outsideInfluence) {
+        int[] infPossibilities = new int[BASE_MOVE_RATE];
+        for(int i = 0; i < BASE_MOVE_RATE; ++i) {
+            int move = (outsideInfluence + (BASE_MOVE_RATE - i)) * direction;
+            infPossibilities[i] = getMovementInfluenceOfValue(capVentValue(value - move));
+        }
+        //Exit on freeze, non-freeze mismatch cannot reverse reliably
+        //eg blocked 41 or unblocked 59
+        if(infPossibilities[0] != infPossibilities[1]) return STARTING_VENT_VALUE;
+        int move = Math.max(0, (outsideInfluence + BASE_MOVE_RATE)) * direction;
+        return getMovementInfluenceOfValue(capVentValue(value - move));
+    }
+    private static boolean isInTable(int value, int direction, int outsideInfluence) {
+        return value >= MIN_VENT_VALUE && value <= MAX_VENT_VALUE && direction >= -1 && direction <= 1
+                && outsideInfluence >= MIN_OUTSIDE_INFLUENCE && outsideInfluence <= 0;
+    }
+    private static int getIndex(int value, int direction, int outsideInfluence) {
+        return ((direction + 1) * NUM_OUTSIDE_INFLUENCES - outsideInfluence) * VentRangeMask.NUM_VALUES + value;
+    }
+    private static int capVentValue(int value) { return Math.min(MAX_VENT_VALUE, Math.max(MIN_VENT_VALUE, value)); }
+}
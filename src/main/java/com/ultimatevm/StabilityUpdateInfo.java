@@ -1,33 +1,57 @@
 package com.ultimatevm;
 
 public class StabilityUpdateInfo {
-    static private int numPlayers = 1;
-    static public void resetPlayers() { numPlayers = 1;}
-    static public int getNumPlayers() { return numPlayers; }
-    static public boolean isSolo() { return numPlayers == 1;}
+    //Kept per thread so separate games can be replayed at once
+    static private final ThreadLocal<int[]> numPlayers = ThreadLocal.withInitial(() -> new int[]{1});
+    static public void resetPlayers() { numPlayers.get()[0] = 1;}
+    static public int getNumPlayers() { return numPlayers.get()[0]; }
+    static public boolean isSolo() { return getNumPlayers() == 1;}
     static public void setNumPlayers(int players) {
-        numPlayers = Math.max(numPlayers, players);
+        int[] count = numPlayers.get();
+        count[0] = Math.max(count[0], players);
     }
+    //Hands a player count over to another thread working on the same game
+    static public void restorePlayers(int players) { numPlayers.get()[0] = players; }
     static public int getMinRNGVariation() {
-        return -numPlayers / 3;
+        return -getNumPlayers() / 3;
     }
-    static public int getMaxRNGPossibleSize() { return (numPlayers / 3) + 2;}
+    static public int getMaxRNGPossibleSize() { return (getNumPlayers() / 3) + 2;}
 
     static public StatusState getPredictionState(StabilityUpdateInfo initialStabUpdate, VentStatusTimeline timeline) {
         if(initialStabUpdate == null) return timeline.getTimelinePredictionState();
-        StatusState predictionState = new StatusState();
+        StatusState predictionState = null;
         //Iterate until we get a valid uncut range prediction
         int startingRNGMod = initialStabUpdate.RNGUpdateMod;
-        for(int i = getMaxRNGPossibleSize() - 1; i >= 0; --i) {
+        int startingBacktracks = timeline.getNumBacktracks();
+        boolean isStabilityChangeModified = false;
+        int i = getMaxRNGPossibleSize() - 1, numModsTried = 0;
+        //Parallel mode replays every mod at once and leaves any mods it couldn't use to this loop
+        if(ParallelPredictionEvaluator.isEnabled()) {
+            ParallelPredictionEvaluator evaluator = timeline.getParallelEvaluator();
+            i = evaluator.evaluate(initialStabUpdate);
+            numModsTried = getMaxRNGPossibleSize() - 1 - i;
+            predictionState = evaluator.getPredictionState();
+            isStabilityChangeModified = evaluator.isStabilityChangeModified();
+        }
+        for(; i >= 0; --i) {
+            ++numModsTried;
             //Start with more common mods first
             initialStabUpdate.RNGUpdateMod = 1 - i;
-            initialStabUpdate.calcStabilityChange();
+            //Caches that are past this update only advance by new events so the mod's change isn't needed
+            if(timeline.willReplayTick(initialStabUpdate.tickTimeStamp)) {
+                initialStabUpdate.calcStabilityChange();
+                isStabilityChangeModified = true;
+            }
             //Run a prediction with this new mod to see if we get a valid result
             predictionState = timeline.getTimelinePredictionState();
             if(predictionState.areRangesDefined()) break;
         }
         initialStabUpdate.RNGUpdateMod = startingRNGMod;
-        initialStabUpdate.calcStabilityChange();
+        //Backtracking can also recalculate this update with the mod being tested
+        if(isStabilityChangeModified || startingBacktracks != timeline.getNumBacktracks())
+            initialStabUpdate.calcStabilityChange();
+        if(timeline.getMetrics() != null)
+            timeline.getMetrics().recordRNGSearch(numModsTried, predictionState != null && predictionState.areRangesDefined());
         return predictionState;
     }
     //Stability updates have a max rng mod of +1
@@ -52,6 +76,19 @@ public class StabilityUpdateInfo {
         verifyByInvalidPoints();
         calcStabilityChange();
     }
+    StabilityUpdateInfo(StabilityUpdateInfo info) {
+        tickTimeStamp = info.tickTimeStamp;
+        initialChange = info.initialChange;
+        stabilityUpdateState = new StatusState(info.stabilityUpdateState);
+        setEqualTo(info);
+    }
+    //Only copies what can change after construction
+    public void setEqualTo(StabilityUpdateInfo info) {
+        possibleRNGMods = info.possibleRNGMods;
+        stabilityUpdateState.setEqualTo(info.stabilityUpdateState);
+        RNGUpdateMod = info.RNGUpdateMod;
+        isVerified = info.isVerified;
+    }
 
     public void verifyByInvalidPoints() {
         if(!isValid()) return;
@@ -100,6 +137,13 @@ public class StabilityUpdateInfo {
     }
     public StatusState getAllPossiblePredictedValuesState() {
         StatusState mergedPossiblities = new StatusState(stabilityUpdateState);
+        //Two unknown vents are solved for every mod at once
+        if(stabilityUpdateState.getNumKnownVents() == 1) {
+            StatusState allModsState = new StatusState(stabilityUpdateState);
+            JointVentCandidates candidates = stabilityUpdateState.getDoubleVentCandidates(initialChange - 1, initialChange - getMinRNGVariation());
+            if(allModsState.calcDoubleVentValues(candidates)) mergedPossiblities.mergePredictedRangesWith(allModsState);
+            return mergedPossiblities;
+        }
         for(int i = 0; i < getMaxRNGPossibleSize(); ++i) {
             StatusState testState = getPossiblePredictedValuesState(1 - i);
             mergedPossiblities.mergePredictedRangesWith(testState);
@@ -147,5 +191,6 @@ public class StabilityUpdateInfo {
     public boolean isVerified() { return isVerified; }
     public int getTickTimeStamp() { return tickTimeStamp; }
     public int getRNGUpdateMod() { return RNGUpdateMod; }
+    void setRNGUpdateMod(int rngMod) { RNGUpdateMod = rngMod; }
     public int getInitialChange() { return initialChange; }
 }
@@ -0,0 +1,57 @@
+package com.ultimatevm;
+
+import java.util.Arrays;
+
+//Fixed bucket latency histogram in the style of HdrHistogram
+//Each power of two range is split into 8 linear buckets so values keep about 12% precision
+//and recording is a couple of shifts with no allocation
+public class StageHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    public static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private final long[] counts = new long[NUM_BUCKETS];
+    private long totalCount, totalValue, maxValue;
+
+    public void record(long value) {
+        if(value < 0) value = 0;
+        ++counts[getBucket(value)];
+        ++totalCount;
+        totalValue += value;
+        maxValue = Math.max(maxValue, value);
+    }
+    public void clear() {
+        Arrays.fill(counts, 0);
+        totalCount = totalValue = maxValue = 0;
+    }
+    //Smallest bucket value that at least the given percent of recorded values fall under
+    public long getValueAtPercentile(double percentile) {
+        if(totalCount == 0) return 0;
+        long targetCount = Math.max(1, (long)Math.ceil(totalCount * percentile / 100.0));
+        long count = 0;
+        for(int i = 0; i < NUM_BUCKETS; ++i) {
+            count += counts[i];
+            if(count >= targetCount) return Math.min(maxValue, getBucketEnd(i));
+        }
+        return maxValue;
+    }
+    static int getBucket(long value) {
+        if(value < SUB_BUCKETS) return (int)value;
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int)((value >> shift) & (SUB_BUCKETS - 1));
+    }
+    static long getBucketStart(int bucket) {
+        if(bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        return (long)(SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+    }
+    static long getBucketEnd(int bucket) {
+        if(bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        return getBucketStart(bucket) + (1L << shift) - 1;
+    }
+
+    //Accessors
+    public long getCount() { return totalCount; }
+    public long getMax() { return maxValue; }
+    public double getMean() { return totalCount == 0 ? 0 : (double)totalValue / totalCount; }
+}
@@ -0,0 +1,44 @@
+package com.ultimatevm;
+
+import java.util.Arrays;
+
+//Status states packed into a long array (a header plus one long per vent)
+//so states can be stored and copied without allocating vent objects
+public class StatePool {
+    public static final int LONGS_PER_STATE = StatusState.NUM_VENTS + 1;
+    private long[] data;
+    private int size;
+
+    public StatePool(int capacity) {
+        data = new long[Math.max(1, capacity) * LONGS_PER_STATE];
+        size = 0;
+    }
+    public int add(StatusState state) {
+        if((size+1) * LONGS_PER_STATE > data.length)
+            data = Arrays.copyOf(data, data.length * 2);
+        state.pack(data, size * LONGS_PER_STATE);
+        return size++;
+    }
+    public void set(int index, StatusState state) {
+        checkIndex(index);
+        state.pack(data, index * LONGS_PER_STATE);
+    }
+    //Copies the stored state into an existing status state
+    public void copyTo(int index, StatusState state) {
+        checkIndex(index);
+        state.unpack(data, index * LONGS_PER_STATE);
+    }
+    public StatusState get(int index) {
+        StatusState state = new StatusState();
+        copyTo(index, state);
+        return state;
+    }
+    public void clear() { size = 0; }
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("State " + index + " of " + size);
+    }
+
+    //Accessors
+    public int size() { return size; }
+    public int getCapacity() { return data.length / LONGS_PER_STATE; }
+}
@@ -1,6 +1,6 @@
 package com.ultimatevm;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import static com.ultimatevm.VentStatus.*;
 
@@ -15,6 +15,10 @@ public class StatusState {
     private int numIdentifiedVents;
     private int stabilityChange;
     private boolean hasReset;
+    //Future stability change per scenario and the state version it was worked out at
+    private static final int NUM_SCENARIOS = UltimateVolcanicMineConfig.PredictionScenario.values().length;
+    private final int[] futureStabilityChanges = new int[NUM_SCENARIOS];
+    private final int[] futureStabilityVersions = new int[NUM_SCENARIOS];
 
     public static int getTotalVentUpdate(int change) {
         return (change - STABILITY_CHANGE_CONSTANT);
@@ -39,6 +43,7 @@ public class StatusState {
     }
 
     public StatusState() {
+        Arrays.fill(futureStabilityVersions, -1);
         hasReset = false;
         numIdentifiedVents = 0;
         for(int i = 0; i < vents.length; ++i) {
@@ -46,6 +51,7 @@ public class StatusState {
         }
     }
     public StatusState(StatusState state) {
+        Arrays.fill(futureStabilityVersions, -1);
         for(int i = 0; i < vents.length; ++i) {
             vents[i] = new VentStatus(VENT_TAGS[i]);
         }
@@ -65,10 +71,36 @@ public class StatusState {
             setVentEqualTo(state, i);
         }
     }
+    //Packed form used by StatePool
+    void pack(long[] data, int offset) {
+        data[offset] = (stabilityChange & 0xFFFFFFFFL) | ((long)numIdentifiedVents << 32);
+        if(hasReset) data[offset] |= (1L << 40);
+        for(int i = 0; i < vents.length; ++i)
+            data[offset+i+1] = vents[i].pack();
+    }
+    void unpack(long[] data, int offset) {
+        stabilityChange = (int)data[offset];
+        numIdentifiedVents = (int)((data[offset] >> 32) & 0xFF);
+        hasReset = (data[offset] & (1L << 40)) != 0;
+        for(int i = 0; i < vents.length; ++i)
+            vents[i].unpack(data[offset+i+1]);
+    }
+    public boolean isVentsEqualTo(StatusState state) {
+        for(int i = 0; i < vents.length; ++i) {
+            if(!vents[i].isEqualTo(state.vents[i])) return false;
+        }
+        return true;
+    }
     public void setEqualTo(StatusState state) {
         this.hasReset = state.hasReset;
         this.stabilityChange = state.stabilityChange;
         setVentsEqualTo(state);
+        //Equal vents give equal results so carry over anything still current on the copied state
+        int stateVersion = state.getVersion(), version = getVersion();
+        for(int i = 0; i < NUM_SCENARIOS; ++i) {
+            futureStabilityVersions[i] = state.futureStabilityVersions[i] == stateVersion ? version : -1;
+            futureStabilityChanges[i] = state.futureStabilityChanges[i];
+        }
     }
     public void clearAllRanges() {
         for(int i = 0; i < vents.length; ++i) {
@@ -78,14 +110,17 @@ public class StatusState {
     }
 
     public int[] updateVentStatus(int[] ventStatus, int chambers) {
-        numIdentifiedVents = 0;
         int[] changeStates = new int[NUM_VENTS];
-        for(int i = 0; i < ventStatus.length; ++i) {
-            changeStates[i] = vents[i].update(ventStatus[i], getDirectionFromChambers(i, chambers));
-            if(vents[i].isIdentified()) ++numIdentifiedVents;
-        }
+        updateVentStatus(ventStatus[0], ventStatus[1], ventStatus[2], chambers, changeStates);
         return changeStates;
     }
+    //Writes each vent's change flags into changeStates so per tick updates don't allocate
+    public void updateVentStatus(int ventA, int ventB, int ventC, int chambers, int[] changeStates) {
+        numIdentifiedVents = 0;
+        changeStates[0] = updateVent(0, ventA, chambers);
+        changeStates[1] = updateVent(1, ventB, chambers);
+        changeStates[2] = updateVent(2, ventC, chambers);
+    }
     public void updateVentMovement() {
         int[] currentVentInfluence = new int[]{0, 0};
         int[] previousVentInfluence = new int[]{0, 0};
@@ -293,6 +328,19 @@ public class StatusState {
         if(getNumKnownVents() == 1) return calcDoubleVentValue(new VentStatus[]{vents[indices[0]], vents[indices[1]]}, change);
         return calcSingleVentValue(vents[indices[0]], change);
     }
+    //Influence pairs the two unknown vents can have for any stability change from minChange to maxChange
+    public JointVentCandidates getDoubleVentCandidates(int minChange, int maxChange) {
+        int partialVentUpdate = getIdentifiedVentTotalValue();
+        return new JointVentCandidates(getTotalVentUpdate(minChange) - partialVentUpdate,
+                getTotalVentUpdate(maxChange) - partialVentUpdate);
+    }
+    //Sets both unknown vents to every value the candidates allow - returns false if there are none
+    public boolean calcDoubleVentValues(JointVentCandidates candidates) {
+        if(getNumKnownVents() != 1 || candidates.isEmpty()) return false;
+        int[] indices = getUnknownVentIndices();
+        setDoubleVentValues(new VentStatus[]{vents[indices[0]], vents[indices[1]]}, candidates);
+        return true;
+    }
     public void alignPredictedRangesWith(StatusState state) {
         for(int i = 0; i < NUM_VENTS; ++i) {
             if(vents[i].isIdentified()) continue;
@@ -357,6 +405,17 @@ public class StatusState {
         }
     }
     public int getFutureStabilityChange(UltimateVolcanicMineConfig.PredictionScenario scenario) {
+        //Unchanged vents give the same prediction so reuse it - the rng part depends on the player count
+        int version = getVersion(), index = scenario.ordinal();
+        if(futureStabilityVersions[index] != version) {
+            futureStabilityChanges[index] = calcFutureStabilityChange(scenario);
+            futureStabilityVersions[index] = version;
+        }
+        int change = futureStabilityChanges[index];
+        if(change == STARTING_VENT_VALUE) return change;
+        return change + StabilityUpdateInfo.getMinRNGVariation();
+    }
+    private int calcFutureStabilityChange(UltimateVolcanicMineConfig.PredictionScenario scenario) {
         //Check if our estimates are precise enough for predicted stability changes
         if(!isEnoughVentsIdentified()) return STARTING_VENT_VALUE;
         int[] unknownIndices = getUnknownVentIndices();
@@ -379,17 +438,13 @@ public class StatusState {
 
         //If all is good calculate the predicted stability change
         int totalVentValue = 0;
-        ArrayList<VentStatus> estimatedVents = new ArrayList<>();
-        for(int i = 0; i < NUM_VENTS; ++i) {
-            if(vents[i].isIdentified() || vents[i].isFreezeClipAccurate())
-                totalVentValue += vents[i].getStabilityInfluence();
-            else
-                estimatedVents.add(vents[i]);
-        }
-
         int estimatedVentValue = Integer.MAX_VALUE;
-        for(int i = 0; i < estimatedVents.size(); ++i) {
-            VentStatus vent = estimatedVents.get(i);
+        for(int i = 0; i < NUM_VENTS; ++i) {
+            VentStatus vent = vents[i];
+            if(vent.isIdentified() || vent.isFreezeClipAccurate()) {
+                totalVentValue += vent.getStabilityInfluence();
+                continue;
+            }
             int avgLower = (vent.getLowerBoundEnd() + vent.getLowerBoundStart()) / 2;
             int avgUpper = (vent.getUpperBoundStart() + vent.getUpperBoundEnd()) / 2;
             int ventUpdate = 0;
@@ -413,7 +468,7 @@ public class StatusState {
 
         if(estimatedVentValue != Integer.MAX_VALUE)
             totalVentValue += estimatedVentValue;
-        return calcStabilityChange(totalVentValue) + StabilityUpdateInfo.getMinRNGVariation();
+        return calcStabilityChange(totalVentValue);
     }
 
     //Helpers
@@ -449,67 +504,23 @@ public class StatusState {
         return true;
     }
     private boolean calcDoubleVentValue(VentStatus[] vents, int change) {
-        int partialVentUpdate = getIdentifiedVentTotalValue();
-        int pointsNeeded = getTotalVentUpdate(change) - partialVentUpdate;
-        //Exit if the value we need is out of range - stability change is invalid
-        if(pointsNeeded < 0 || pointsNeeded > (int)VENT_STABILITY_WEIGHT * 2) return false;
-
-        int totalLowerBoundStart = STARTING_VENT_VALUE;
-        int totalLowerBoundEnd = STARTING_VENT_VALUE;
-        int totalUpperBoundStart = STARTING_VENT_VALUE;
-        int totalUpperBoundEnd = STARTING_VENT_VALUE;
-
-        //Try all of the possible double vent combos
-        for(int takenPoints = 0; takenPoints <= (int)VENT_STABILITY_WEIGHT; ++takenPoints) {
-            int remainingPoints = pointsNeeded - takenPoints;
-            if(remainingPoints < 0 || remainingPoints > (int)VENT_STABILITY_WEIGHT) continue;
-            float missingInversePercent = 1.0f - (takenPoints / VENT_STABILITY_WEIGHT);
-            int missingVentUpdate = (int)Math.ceil(PERFECT_VENT_VALUE * missingInversePercent);
-
-            int maxDistance = Math.min(MAX_VENT_VALUE - PERFECT_VENT_VALUE, missingVentUpdate);
-            int minDistance = Math.max(0, missingVentUpdate - PERFECT_VENT_VALUE);
-
-            int lowerBoundStart = (PERFECT_VENT_VALUE - TRUNCATION_POSSIBILITIES) - maxDistance;
-            int lowerBoundEnd = (PERFECT_VENT_VALUE + TRUNCATION_POSSIBILITIES) - minDistance;
-            int upperBoundStart = (PERFECT_VENT_VALUE - TRUNCATION_POSSIBILITIES) + minDistance;
-            int upperBoundEnd = (PERFECT_VENT_VALUE + TRUNCATION_POSSIBILITIES) + maxDistance;
-
-            //Get full possible range values
-            while(lowerBoundStart < lowerBoundEnd) {
-                int newChange1 = calcStabilityChange(partialVentUpdate + remainingPoints + getStabilityInfluence(lowerBoundStart));
-                int newChange2 = calcStabilityChange(partialVentUpdate + remainingPoints + getStabilityInfluence(lowerBoundEnd));
-                if(newChange1 == change && newChange2 == change) break;
-
-                if(newChange1 != change) {
-                    ++lowerBoundStart; --upperBoundEnd;
-                }
-                if(newChange2 != change) {
-                    --lowerBoundEnd; ++upperBoundStart;
-                }
-            }
-
-            //Update our total bounds
-            if(totalLowerBoundStart == STARTING_VENT_VALUE) totalLowerBoundStart = lowerBoundStart;
-            else totalLowerBoundStart = Math.min(totalLowerBoundStart, lowerBoundStart);
-
-            if(totalLowerBoundEnd == STARTING_VENT_VALUE) totalLowerBoundEnd = lowerBoundEnd;
-            else totalLowerBoundEnd = Math.max(totalLowerBoundEnd, lowerBoundEnd);
-
-            if(totalUpperBoundStart == STARTING_VENT_VALUE) totalUpperBoundStart = upperBoundStart;
-            else totalUpperBoundStart = Math.min(totalUpperBoundStart, upperBoundStart);
-
-            if(totalUpperBoundEnd == STARTING_VENT_VALUE) totalUpperBoundEnd = upperBoundEnd;
-            else totalUpperBoundEnd = Math.max(totalUpperBoundEnd, upperBoundEnd);
-        }
-
-        //Set both vents accordingly
-        for(int i = 0; i < vents.length; ++i) {
-            vents[i].clearRanges();
-            vents[i].setLowerBoundRange(totalLowerBoundStart, totalLowerBoundEnd);
-            vents[i].setUpperBoundRange(totalUpperBoundStart, totalUpperBoundEnd);
-        }
+        JointVentCandidates candidates = getDoubleVentCandidates(change, change);
+        //Exit if no pair of values gives the points we need - stability change is invalid
+        if(candidates.isEmpty()) return false;
+        setDoubleVentValues(vents, candidates);
         return true;
     }
+    private void setDoubleVentValues(VentStatus[] vents, JointVentCandidates candidates) {
+        //Either vent can be either half of a pair
+        VentRangeMask values = JointVentCandidates.getValues(candidates.getFirstPoints() | candidates.getSecondPoints());
+        for(int i = 0; i < vents.length; ++i)
+            values.applyTo(vents[i]);
+    }
+    private int updateVent(int index, int value, int chambers) {
+        int changeState = vents[index].update(value, getDirectionFromChambers(index, chambers));
+        if(vents[index].isIdentified()) ++numIdentifiedVents;
+        return changeState;
+    }
     private int getDirectionFromChambers(int index, int chambers) { return (chambers & (1 << index)) != 0 ? 1 : -1;}
     private int getIdentifiedVentTotalValue() {
         int totalVentUpdate = 0;
@@ -679,10 +690,8 @@ public class StatusState {
         return new int[]{boundStart, boundEnd};
     }
     private boolean doesVentSourceHaveRange(VentStatus trimSource, int missingPoints) {
-        int[] lowerRange = VentStatus.pointsToLowerRange(missingPoints);
-        int[] upperRange = VentStatus.pointsToUpperRange(missingPoints);
-        boolean isLowerValid = trimSource.isWithinRange(lowerRange[0], lowerRange[1]);
-        boolean isUpperValid = trimSource.isWithinRange(upperRange[0], upperRange[1]);
+        boolean isLowerValid = trimSource.isWithinRange(VentStatus.getLowerRangeStart(missingPoints), VentStatus.getLowerRangeEnd(missingPoints));
+        boolean isUpperValid = trimSource.isWithinRange(VentStatus.getUpperRangeStart(missingPoints), VentStatus.getUpperRangeEnd(missingPoints));
         return (isLowerValid || isUpperValid);
     }
 
@@ -695,6 +704,12 @@ public class StatusState {
     public final VentStatus[] getVents() { return vents; }
     public int getStabilityChange() { return stabilityChange; }
     public int getNumIdentifiedVents() { return numIdentifiedVents; }
+    //Changes whenever any vent changes - identified counts only change along with their vents
+    public int getVersion() {
+        int version = 0;
+        for(int i = 0; i < vents.length; ++i) version += vents[i].getVersion();
+        return version;
+    }
     public int getNumKnownVents() {
         int knownCount = vents[0].isFreezeClipAccurate() ? 1 : 0;
         return knownCount + numIdentifiedVents;
@@ -0,0 +1,109 @@
+package com.ultimatevm;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+//Array backed list of possible states that recycles states once they are removed
+public class StatusStateDeque implements Iterable<StatusState> {
+    private static final int STARTING_CAPACITY = 8;
+    private StatusState[] states = new StatusState[STARTING_CAPACITY];
+    private StatusState[] freeStates = new StatusState[STARTING_CAPACITY];
+    private int size, numFreeStates;
+    private long poolHits, poolMisses;
+
+    //Get a state from the pool - its values are whatever it last held
+    public StatusState acquire() {
+        if(numFreeStates == 0) {
+            ++poolMisses;
+            return new StatusState();
+        }
+        ++poolHits;
+        StatusState state = freeStates[--numFreeStates];
+        freeStates[numFreeStates] = null;
+        return state;
+    }
+    public StatusState acquire(StatusState copyFrom) {
+        StatusState state = acquire();
+        state.setEqualTo(copyFrom);
+        return state;
+    }
+    public void release(StatusState state) {
+        if(numFreeStates == freeStates.length)
+            freeStates = Arrays.copyOf(freeStates, freeStates.length * 2);
+        freeStates[numFreeStates++] = state;
+    }
+    //Release every state except one that is still referenced elsewhere
+    public void releaseAll(StatusState keptState) {
+        for(int i = 0; i < size; ++i) {
+            if(states[i] != keptState) release(states[i]);
+            states[i] = null;
+        }
+        size = 0;
+    }
+
+    public void addLast(StatusState state) {
+        if(size == states.length)
+            states = Arrays.copyOf(states, states.length * 2);
+        states[size++] = state;
+    }
+    public void remove(int index) {
+        checkIndex(index);
+        release(states[index]);
+        System.arraycopy(states, index+1, states, index, size - index - 1);
+        states[--size] = null;
+    }
+    public StatusState get(int index) {
+        checkIndex(index);
+        return states[index];
+    }
+    public StatusState getLast() {
+        if(size == 0) throw new NoSuchElementException();
+        return states[size-1];
+    }
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("State " + index + " of " + size);
+    }
+
+    @Override
+    public Iterator<StatusState> iterator() {
+        return new Iterator<StatusState>() {
+            private int index = 0;
+            @Override
+            public boolean hasNext() { return index < size; }
+            @Override
+            public StatusState next() {
+                if(!hasNext()) throw new NoSuchElementException();
+                return states[index++];
+            }
+        };
+    }
+    //Removing through this iterator releases the state back to the pool
+    public Iterator<StatusState> descendingIterator() {
+        return new Iterator<StatusState>() {
+            private int index = size;
+            private boolean canRemove = false;
+            @Override
+            public boolean hasNext() { return index > 0; }
+            @Override
+            public StatusState next() {
+                if(!hasNext()) throw new NoSuchElementException();
+                canRemove = true;
+                return states[--index];
+            }
+            @Override
+            public void remove() {
+                if(!canRemove) throw new IllegalStateException();
+                canRemove = false;
+                StatusStateDeque.this.remove(index);
+            }
+        };
+    }
+
+    //Accessors
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public long getPoolHits() { return poolHits; }
+    public long getPoolMisses() { return poolMisses; }
+    public int getNumFreeStates() { return numFreeStates; }
+}
@@ -0,0 +1,51 @@
+package com.ultimatevm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Ring buffer of fixed size int records for one producer and one consumer thread
+//The client thread writes tick events and the prediction worker reads them without locking
+public class TickEventQueue {
+    public static final int RECORD_SIZE = 5;
+    public static final int DEFAULT_CAPACITY = 1024;
+    private final int[] records;
+    private final int capacity, mask;
+    //Next record to read and next record to write - only ever increase
+    private final AtomicLong head = new AtomicLong(), tail = new AtomicLong();
+
+    public TickEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+    public TickEventQueue(int minCapacity) {
+        //Round up to a power of two so indices wrap with a mask
+        capacity = minCapacity <= 2 ? 2 : Integer.highestOneBit(minCapacity - 1) << 1;
+        mask = capacity - 1;
+        records = new int[capacity * RECORD_SIZE];
+    }
+    //Producer only - returns false if the consumer has fallen a full queue behind
+    public boolean offer(int type, int arg0, int arg1, int arg2, int arg3) {
+        long writeIndex = tail.get();
+        if(writeIndex - head.get() == capacity) return false;
+        int offset = (int)(writeIndex & mask) * RECORD_SIZE;
+        records[offset] = type;
+        records[offset+1] = arg0;
+        records[offset+2] = arg1;
+        records[offset+3] = arg2;
+        records[offset+4] = arg3;
+        //Ordered write publishes the record before the consumer can see the new tail
+        tail.lazySet(writeIndex + 1);
+        return true;
+    }
+    //Consumer only - copies the next record into the given array or returns false if empty
+    public boolean poll(int[] record) {
+        long readIndex = head.get();
+        if(readIndex == tail.get()) return false;
+        System.arraycopy(records, (int)(readIndex & mask) * RECORD_SIZE, record, 0, RECORD_SIZE);
+        head.lazySet(readIndex + 1);
+        return true;
+    }
+
+    //Accessors
+    public int size() { return (int)(tail.get() - head.get()); }
+    public boolean isEmpty() { return tail.get() == head.get(); }
+    public int getCapacity() { return capacity; }
+}
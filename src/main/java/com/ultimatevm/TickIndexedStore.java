@@ -0,0 +1,55 @@
+package com.ultimatevm;
+
+import java.util.Arrays;
+
+//Tick keyed store backed by an array of slots and a presence bitmap
+//Ticks are bounded by the game length so lookups don't box or hash
+public class TickIndexedStore<T> {
+    private final Object[] slots;
+    private final long[] presence;
+    private int size;
+
+    public TickIndexedStore() {
+        this(VentStatusTimeline.VM_GAME_FULL_TIME);
+    }
+    public TickIndexedStore(int numTicks) {
+        slots = new Object[numTicks];
+        presence = new long[(numTicks + 63) >> 6];
+    }
+    @SuppressWarnings("unchecked")
+    public T get(int tick) {
+        if(!containsKey(tick)) return null;
+        return (T)slots[tick];
+    }
+    public boolean containsKey(int tick) {
+        if(tick < 0 || tick >= slots.length) return false;
+        return (presence[tick >> 6] & (1L << tick)) != 0;
+    }
+    public T put(int tick, T value) {
+        if(tick < 0 || tick >= slots.length)
+            throw new IndexOutOfBoundsException("Tick " + tick + " is outside of the game");
+        if(!containsKey(tick)) ++size;
+        T prevValue = get(tick);
+        slots[tick] = value;
+        presence[tick >> 6] |= (1L << tick);
+        return prevValue;
+    }
+    public T remove(int tick) {
+        if(!containsKey(tick)) return null;
+        T prevValue = get(tick);
+        slots[tick] = null;
+        presence[tick >> 6] &= ~(1L << tick);
+        --size;
+        return prevValue;
+    }
+    public void clear() {
+        Arrays.fill(slots, null);
+        Arrays.fill(presence, 0);
+        size = 0;
+    }
+
+    //Accessors
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int getNumTicks() { return slots.length; }
+}
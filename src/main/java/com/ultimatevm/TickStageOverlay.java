@@ -0,0 +1,40 @@
+package com.ultimatevm;
+
+import java.awt.*;
+import javax.inject.Inject;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+public class TickStageOverlay extends OverlayPanel {
+    private TickStageTimer stageTimer;
+
+    @Inject
+    TickStageOverlay()
+    {
+        setPosition(OverlayPosition.TOP_LEFT);
+        panelComponent.setPreferredSize(new Dimension(220, 0));
+    }
+
+    public void setStageTimer(TickStageTimer stageTimer) {
+        this.stageTimer = stageTimer;
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics) {
+        if(stageTimer == null || !stageTimer.isEnabled()) return null;
+        panelComponent.getChildren().add(TitleComponent.builder().text("Tick Stages p50/p99/max (us)").build());
+        for(TickStageTimer.Stage stage : TickStageTimer.Stage.values()) {
+            StageHistogram histogram = stageTimer.getHistogram(stage);
+            panelComponent.getChildren().add(LineComponent.builder()
+                    .left(stage.getName())
+                    .right(String.format("%.0f/%.0f/%.0f",
+                            histogram.getValueAtPercentile(50) / 1000.0,
+                            histogram.getValueAtPercentile(99) / 1000.0,
+                            histogram.getMax() / 1000.0))
+                    .build());
+        }
+        return super.render(graphics);
+    }
+}
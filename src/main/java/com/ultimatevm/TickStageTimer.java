@@ -0,0 +1,90 @@
+package com.ultimatevm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Times each part of the game tick handler into a histogram per stage
+//A stage can be timed in several pieces per tick and is recorded once when the tick ends
+public class TickStageTimer {
+    public enum Stage {
+        IN_VM("In VM check"),
+        PICKAXE("Pickaxe protection"),
+        ROCK_TIMERS("Rock timers"),
+        PREDICTION("Vent prediction"),
+        NOTIFICATIONS("Notifications"),
+        RECORDING("Game recording"),
+        TOTAL("Game tick");
+
+        private final String name;
+        Stage(String name) {
+            this.name = name;
+        }
+        public String getName() { return name; }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private final StageHistogram[] histograms = new StageHistogram[STAGES.length];
+    private final long[] tickTimes = new long[STAGES.length];
+    private final boolean[] isTimedThisTick = new boolean[STAGES.length];
+    private boolean isEnabled = false;
+
+    public TickStageTimer() {
+        for(int i = 0; i < histograms.length; ++i)
+            histograms[i] = new StageHistogram();
+    }
+
+    //Returns the time to pass to the first lap or 0 when disabled
+    public long beginTick() {
+        if(!isEnabled) return 0;
+        for(int i = 0; i < STAGES.length; ++i) {
+            tickTimes[i] = 0;
+            isTimedThisTick[i] = false;
+        }
+        return System.nanoTime();
+    }
+    //Adds the time since lapStart to the stage and returns the start of the next lap
+    public long lap(Stage stage, long lapStart) {
+        //A tick that started while disabled stays untimed
+        if(!isEnabled || lapStart == 0) return 0;
+        long now = System.nanoTime();
+        tickTimes[stage.ordinal()] += now - lapStart;
+        isTimedThisTick[stage.ordinal()] = true;
+        return now;
+    }
+    public void endTick(long tickStart) {
+        if(!isEnabled || tickStart == 0) return;
+        lap(Stage.TOTAL, tickStart);
+        for(int i = 0; i < STAGES.length; ++i) {
+            if(isTimedThisTick[i]) histograms[i].record(tickTimes[i]);
+        }
+    }
+    public void clear() {
+        for(StageHistogram histogram : histograms)
+            histogram.clear();
+    }
+
+    public String toReport() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-20s %8s %10s %10s %10s %10s %10s%n", "Stage (us)", "Ticks", "Mean", "p50", "p90", "p99", "Max"));
+        for(Stage stage : STAGES) {
+            StageHistogram histogram = getHistogram(stage);
+            builder.append(String.format("%-20s %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n", stage.getName(), histogram.getCount(),
+                    histogram.getMean() / 1000.0,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0));
+        }
+        return builder.toString();
+    }
+    public void writeReport(Path path) throws IOException {
+        Files.write(path, toReport().getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Accessors
+    public boolean isEnabled() { return isEnabled; }
+    public void setEnabled(boolean enabled) { isEnabled = enabled; }
+    public final StageHistogram getHistogram(Stage stage) { return histograms[stage.ordinal()]; }
+}
@@ -1,25 +1,30 @@
 package com.ultimatevm;
 
-import java.util.LinkedList;
-
 public class TimelineCache {
-    public LinkedList<StatusState> possibleStates;
+    public final StatusStateDeque possibleStates = new StatusStateDeque();
     public StabilityUpdateInfo prevStabInfo;
     public StatusState predictedState;
     public int startingTick, i;
     public int previousMovementTick, numTicksNegativePredictedStability;
     public int mostRecentIdentifyTick;
+    //Reused by the replay for temporary copies
+    final StatusState scratchState = new StatusState();
+    private boolean isInitialized = false;
 
     TimelineCache() {
 
     }
     void initalize(StatusState initialState, int startTick) {
-        possibleStates = new LinkedList<>();
+        isInitialized = true;
+        releaseStates();
         prevStabInfo = null;
-        predictedState = new StatusState(initialState);
+        predictedState = possibleStates.acquire(initialState);
         i = startingTick = previousMovementTick = startTick;
         mostRecentIdentifyTick = startTick;
         numTicksNegativePredictedStability = 0;
-        possibleStates.push(predictedState);
+        possibleStates.addLast(predictedState);
     }
+    boolean isInitialized() { return isInitialized; }
+    //The predicted state may have been handed out so it is never recycled
+    void releaseStates() { possibleStates.releaseAll(predictedState); }
 }
@@ -0,0 +1,48 @@
+package com.ultimatevm;
+
+//Exact copy of a TimelineCache so a forked replay can be undone
+public class TimelineCacheSnapshot {
+    //Possible states are packed with the predicted state last if it isn't one of them
+    private final StatePool states = new StatePool(StatusState.NUM_VENTS);
+    private StabilityUpdateInfo prevStabInfo;
+    private int startingTick, i, previousMovementTick, numTicksNegativePredictedStability;
+    private int mostRecentIdentifyTick, numPossibleStates, predictedIndex;
+
+    void save(TimelineCache cache) {
+        states.clear();
+        numPossibleStates = cache.possibleStates.size();
+        int predicted = -1;
+        for(StatusState state : cache.possibleStates) {
+            int index = states.add(state);
+            if(state == cache.predictedState) predicted = index;
+        }
+        //Predicted state isn't always one of the possibilities (skipped movements)
+        if(predicted == -1) states.add(cache.predictedState);
+        predictedIndex = predicted;
+        prevStabInfo = cache.prevStabInfo;
+        startingTick = cache.startingTick;
+        i = cache.i;
+        previousMovementTick = cache.previousMovementTick;
+        numTicksNegativePredictedStability = cache.numTicksNegativePredictedStability;
+        mostRecentIdentifyTick = cache.mostRecentIdentifyTick;
+    }
+    void restore(TimelineCache cache) {
+        cache.releaseStates();
+        for(int index = 0; index < numPossibleStates; ++index) {
+            StatusState state = cache.possibleStates.acquire();
+            states.copyTo(index, state);
+            cache.possibleStates.addLast(state);
+        }
+        if(predictedIndex == -1) {
+            cache.predictedState = cache.possibleStates.acquire();
+            states.copyTo(numPossibleStates, cache.predictedState);
+        }
+        else cache.predictedState = cache.possibleStates.get(predictedIndex);
+        cache.prevStabInfo = prevStabInfo;
+        cache.startingTick = startingTick;
+        cache.i = i;
+        cache.previousMovementTick = previousMovementTick;
+        cache.numTicksNegativePredictedStability = numTicksNegativePredictedStability;
+        cache.mostRecentIdentifyTick = mostRecentIdentifyTick;
+    }
+}
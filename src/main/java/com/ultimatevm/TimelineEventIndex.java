@@ -0,0 +1,65 @@
+package com.ultimatevm;
+
+import java.util.Arrays;
+
+//Per flag bitsets over the timeline so replays can jump straight between ticks with events
+//Flag masks use the same bits as the timeline (1 << MOVEMENT_UPDATE_FLAG etc)
+public class TimelineEventIndex {
+    private static final int FIRST_FLAG = VentStatusTimeline.DIRECTION_CHANGED_FLAG;
+    private static final int NUM_FLAGS = VentStatusTimeline.HALF_SPACE_COMPLETED_FLAG - FIRST_FLAG + 1;
+    private final long[][] flagTicks;
+    private final int numTicks, numWords;
+
+    public TimelineEventIndex(int numTicks) {
+        this.numTicks = numTicks;
+        numWords = (numTicks + 63) >> 6;
+        flagTicks = new long[NUM_FLAGS][numWords];
+    }
+    public void set(int tick, int flag) {
+        flagTicks[flag - FIRST_FLAG][tick >> 6] |= (1L << tick);
+    }
+    public void clear(int tick, int flag) {
+        flagTicks[flag - FIRST_FLAG][tick >> 6] &= ~(1L << tick);
+    }
+    public void clear() {
+        for(int i = 0; i < NUM_FLAGS; ++i) Arrays.fill(flagTicks[i], 0);
+    }
+    public boolean has(int tick, int flag) {
+        if(tick < 0 || tick >= numTicks) return false;
+        return (flagTicks[flag - FIRST_FLAG][tick >> 6] & (1L << tick)) != 0;
+    }
+    //First tick at or after the given tick with any of the flags or -1
+    public int nextEvent(int tick, int flagMask) {
+        if(tick < 0) tick = 0;
+        if(tick >= numTicks) return -1;
+        int word = tick >> 6;
+        long bits = getWord(word, flagMask) & (-1L << tick);
+        while(bits == 0) {
+            if(++word >= numWords) return -1;
+            bits = getWord(word, flagMask);
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+    //Last tick at or before the given tick with any of the flags or -1
+    public int prevEvent(int tick, int flagMask) {
+        if(tick >= numTicks) tick = numTicks - 1;
+        if(tick < 0) return -1;
+        int word = tick >> 6;
+        long bits = getWord(word, flagMask) & (-1L >>> (63 - (tick & 63)));
+        while(bits == 0) {
+            if(--word < 0) return -1;
+            bits = getWord(word, flagMask);
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+    private long getWord(int word, int flagMask) {
+        long bits = 0;
+        for(int i = 0; i < NUM_FLAGS; ++i) {
+            if((flagMask & (1 << (i + FIRST_FLAG))) != 0) bits |= flagTicks[i][word];
+        }
+        return bits;
+    }
+
+    //Accessors
+    public int getNumTicks() { return numTicks; }
+}
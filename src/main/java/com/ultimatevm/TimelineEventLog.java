@@ -0,0 +1,94 @@
+package com.ultimatevm;
+
+import java.util.Arrays;
+
+import static com.ultimatevm.VentStatusTimeline.*;
+
+//Append only log of every change made to a timeline as fixed size int records
+//Records are never edited - backtracking corrections are appended as their own events
+//Record bits use the same layout as the timeline (move bits << 6, half space bits etc)
+public class TimelineEventLog {
+    public static final int RECORD_SIZE = 3;
+    public static final int DEFAULT_CAPACITY = 256;
+    //Event types
+    public static final int EVENT_MOVEMENT = 0;
+    public static final int EVENT_STABILITY = 1;
+    public static final int EVENT_DIRECTION = 2;
+    public static final int EVENT_EARTHQUAKE = 3;
+    public static final int EVENT_IDENTIFY = 4;
+    public static final int EVENT_ESTIMATED_MOVE = 5;
+    public static final int EVENT_HALF_SPACE = 6;
+    //Corrections
+    public static final int EVENT_MOVEMENT_CORRECTION = 7;
+    public static final int EVENT_ESTIMATED_MOVE_REMOVED = 8;
+    public static final int NUM_EVENT_TYPES = 9;
+
+    //Timeline flag and the data bits each type carries
+    private static final int[] EVENT_FLAGS = {MOVEMENT_UPDATE_FLAG, STABILITY_UPDATE_FLAG, DIRECTION_CHANGED_FLAG,
+            EARTHQUAKE_EVENT_FLAG, IDENTIFIED_VENT_FLAG, ESTIMATED_MOVEMENT_FLAG, HALF_SPACE_COMPLETED_FLAG,
+            MOVEMENT_UPDATE_FLAG, ESTIMATED_MOVEMENT_FLAG};
+    private static final int[] EVENT_BIT_MASKS = {MOVEMENT_BIT_MASK, 0, DIRECTION_CHANGED_BIT_MASK,
+            0, IDENTIFIED_BIT_MASK, 0, HALF_SPACE_VENTS_BIT_MASK | HALF_SPACE_CLIP_BIT_MASK,
+            MOVEMENT_BIT_MASK, 0};
+
+    private int[] records;
+    private int size;
+
+    public TimelineEventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+    public TimelineEventLog(int capacity) {
+        records = new int[Math.max(1, capacity) * RECORD_SIZE];
+    }
+    //Returns the offset of the new record
+    public int append(int type, int tick, int bits) {
+        if(type < 0 || type >= NUM_EVENT_TYPES) throw new IllegalArgumentException("Unknown timeline event " + type);
+        if(size * RECORD_SIZE == records.length) records = Arrays.copyOf(records, records.length * 2);
+        int offset = size * RECORD_SIZE;
+        records[offset] = type;
+        records[offset+1] = tick;
+        records[offset+2] = bits & EVENT_BIT_MASKS[type];
+        return size++;
+    }
+    //Applies the record at offset to a tick indexed timeline and its event index
+    public void applyTo(int offset, int[] timeline, TimelineEventIndex eventIndex) {
+        int type = getType(offset), tick = getTick(offset), bits = getBits(offset);
+        int flag = EVENT_FLAGS[type];
+        switch(type) {
+            case EVENT_MOVEMENT_CORRECTION:
+                timeline[tick] = (timeline[tick] & ~MOVEMENT_BIT_MASK) | bits;
+                break;
+            case EVENT_ESTIMATED_MOVE_REMOVED:
+                timeline[tick] &= ~(1 << flag);
+                eventIndex.clear(tick, flag);
+                break;
+            default:
+                timeline[tick] |= (1 << flag) | bits;
+                eventIndex.set(tick, flag);
+                break;
+        }
+    }
+    //Earliest tick changed by the records from offset onwards or -1
+    public int getEarliestTickSince(int offset) {
+        int earliestTick = -1;
+        for(int i = Math.max(0, offset); i < size; ++i) {
+            int tick = getTick(i);
+            if(earliestTick == -1 || tick < earliestTick) earliestTick = tick;
+        }
+        return earliestTick;
+    }
+    public static boolean isCorrection(int type) {
+        return type == EVENT_MOVEMENT_CORRECTION || type == EVENT_ESTIMATED_MOVE_REMOVED;
+    }
+
+    //Accessors
+    public int getType(int offset) { return records[checkOffset(offset) * RECORD_SIZE]; }
+    public int getTick(int offset) { return records[checkOffset(offset) * RECORD_SIZE + 1]; }
+    public int getBits(int offset) { return records[checkOffset(offset) * RECORD_SIZE + 2]; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    private int checkOffset(int offset) {
+        if(offset < 0 || offset >= size) throw new IndexOutOfBoundsException("Offset " + offset + " size " + size);
+        return offset;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ultimatevm;
+
+import java.util.Arrays;
+
+//Tick indexed timeline built from a TimelineEventLog
+//Views only ever apply new records so consumers catch up from where they left off
+//and can be rebuilt to how the timeline looked at any earlier offset
+public class TimelineEventView {
+    private final TimelineEventLog log;
+    private final int[] timeline;
+    private final TimelineEventIndex eventIndex;
+    //Number of records applied so far
+    private int offset;
+
+    public TimelineEventView(TimelineEventLog log) {
+        this(log, VentStatusTimeline.VM_GAME_FULL_TIME);
+    }
+    public TimelineEventView(TimelineEventLog log, int numTicks) {
+        this.log = log;
+        timeline = new int[numTicks];
+        eventIndex = new TimelineEventIndex(numTicks);
+    }
+    //Applies every record added since the last catch up
+    //Returns the earliest tick changed or -1 if there were no new records
+    public int catchUp() {
+        return replayTo(log.size());
+    }
+    //Moves the view to just after the record at endOffset-1 - going back rebuilds it from the start
+    public int replayTo(int endOffset) {
+        endOffset = Math.max(0, Math.min(endOffset, log.size()));
+        int earliestTick = -1;
+        if(endOffset < offset) {
+            Arrays.fill(timeline, 0);
+            eventIndex.clear();
+            earliestTick = 0;
+            offset = 0;
+        }
+        for(; offset < endOffset; ++offset) {
+            log.applyTo(offset, timeline, eventIndex);
+            int tick = log.getTick(offset);
+            if(earliestTick == -1 || tick < earliestTick) earliestTick = tick;
+        }
+        return earliestTick;
+    }
+    public boolean isCaughtUp() { return offset == log.size(); }
+
+    //Accessors
+    public final TimelineEventLog getLog() { return log; }
+    public final int[] getTimeline() { return timeline; }
+    public final TimelineEventIndex getEventIndex() { return eventIndex; }
+    public int getOffset() { return offset; }
+}
@@ -451,4 +451,82 @@ public interface UltimateVolcanicMineConfig extends Config
 	{
 		return 1;
 	}
+
+	@ConfigSection(
+			name = "Performance",
+			description = "Options for how vent predictions are calculated",
+			position = 6,
+			closedByDefault = true
+	)
+	String performance = "performance";
+	@ConfigItem(
+			keyName = "parallelPrediction",
+			name = "Parallel Prediction",
+			description = "Calculates every possible stability rng outcome at once on background threads",
+			position = 0,
+			section = performance
+	)
+	default boolean parallelPrediction()
+	{
+		return false;
+	}
+	@ConfigItem(
+			keyName = "backgroundPrediction",
+			name = "Background Prediction",
+			description = "Runs vent predictions on their own thread so game ticks never wait on them",
+			position = 1,
+			section = performance
+	)
+	default boolean backgroundPrediction()
+	{
+		return false;
+	}
+	@ConfigItem(
+			keyName = "recordGames",
+			name = "Record Games",
+			description = "Saves the vent, stability and player updates of each game to .runelite/ultimate-vm-recordings so they can be replayed",
+			position = 2,
+			section = performance
+	)
+	default boolean recordGames()
+	{
+		return false;
+	}
+	@ConfigItem(
+			keyName = "tickStageTimings",
+			name = "Game Tick Timings",
+			description = "Shows how long each part of the game tick takes and saves the timings to .runelite/ultimate-vm-timings.txt when turned off",
+			position = 3,
+			section = performance
+	)
+	default boolean tickStageTimings()
+	{
+		return false;
+	}
+	@ConfigItem(
+			keyName = "maxPossibleStates",
+			name = "Max Vent Possibilities",
+			description = "Limits how many skipped movement possibilities are tracked - the least likely are dropped first",
+			position = 4,
+			section = performance
+	)
+	@Range(
+			max = 64,
+			min = VentStatusTimeline.MIN_POSSIBLE_STATES
+	)
+	default int maxPossibleStates()
+	{
+		return VentStatusTimeline.DEFAULT_MAX_POSSIBLE_STATES;
+	}
+	@ConfigItem(
+			keyName = "jointVentTracking",
+			name = "Joint Vent Tracking",
+			description = "Tracks which values the two unknown vents can have together while one vent is identified to narrow their ranges",
+			position = 5,
+			section = performance
+	)
+	default boolean jointVentTracking()
+	{
+		return false;
+	}
 }
@@ -11,6 +11,7 @@ import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.widgets.ComponentID;
 import net.runelite.api.widgets.InterfaceID;
 import net.runelite.client.Notifier;
+import net.runelite.client.RuneLite;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
@@ -21,6 +22,8 @@ import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.util.Text;
 import net.runelite.api.widgets.Widget;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 
 @Slf4j
@@ -47,6 +50,9 @@ public class UltimateVolcanicMinePlugin extends Plugin
 	@Inject
 	private TimedObjectOverlay timedObjectOverlay;
 
+	@Inject
+	private TickStageOverlay tickStageOverlay;
+
 	//Constants
 	private static final int PROC_VOLCANIC_MINE_SET_OTHERINFO = 2022;
 	private static final int VARBIT_STABILITY = 5938;
@@ -75,9 +81,17 @@ public class UltimateVolcanicMinePlugin extends Plugin
 	private static final int VM_LOBBY_TIME = 50;
 
 	private static final float SECONDS_TO_TICKS = 1.666f;
+	private static final String RECORDING_DIRECTORY = "ultimate-vm-recordings";
+	private static final String TIMING_REPORT_FILE = "ultimate-vm-timings.txt";
 
 
 	private VentStatusPredicter ventStatusPredicter = new VentStatusPredicter();
+	//Owns the predicter while background prediction is on
+	private VentPredictionWorker predictionWorker;
+	private PredictionSnapshot lastHandledSnapshot;
+	private GameRecorder gameRecorder;
+	private boolean isRecordingFailed = false;
+	private final TickStageTimer stageTimer = new TickStageTimer();
 	private StabilityTracker stabilityTracker = new StabilityTracker();
 	private StabilityTracker futureStabilityTracker = new StabilityTracker();
 	private VMNotifier VM_notifier;
@@ -112,6 +126,13 @@ public class UltimateVolcanicMinePlugin extends Plugin
 
 		overlayManager.remove(timedObjectOverlay);
 		if(config.rockTimer() || config.platformTimer()) overlayManager.add(timedObjectOverlay);
+
+		ParallelPredictionEvaluator.setEnabled(config.parallelPrediction());
+		VentStatusTimeline.setMaxPossibleStates(config.maxPossibleStates());
+		JointVentTracker.setEnabled(config.jointVentTracking());
+		setBackgroundPrediction(config.backgroundPrediction());
+		if(!config.recordGames()) stopRecording();
+		setStageTimings(config.tickStageTimings());
 	}
 
 	@Override
@@ -123,8 +144,14 @@ public class UltimateVolcanicMinePlugin extends Plugin
 		capInfoBox = new CapCounterInfoBox(capCounter, this);
 		timedObjectOverlay.setRockTracker(timedObjectTracker);
 		overlayManager.add(timedObjectOverlay);
+		tickStageOverlay.setStageTimer(stageTimer);
 		eruptionTime = (int) (config.eruptionWarningTime() * SECONDS_TO_TICKS);
 		ventWarningTime = (int) (config.ventWarningTime() * SECONDS_TO_TICKS);
+		ParallelPredictionEvaluator.setEnabled(config.parallelPrediction());
+		VentStatusTimeline.setMaxPossibleStates(config.maxPossibleStates());
+		JointVentTracker.setEnabled(config.jointVentTracking());
+		setBackgroundPrediction(config.backgroundPrediction());
+		setStageTimings(config.tickStageTimings());
 	}
 
 	@Override
@@ -132,6 +159,11 @@ public class UltimateVolcanicMinePlugin extends Plugin
 	{
 		overlayManager.remove(timedObjectOverlay);
 		infoBoxManager.removeInfoBox(capInfoBox);
+		ParallelPredictionEvaluator.setEnabled(false);
+		JointVentTracker.setEnabled(false);
+		setBackgroundPrediction(false);
+		stopRecording();
+		setStageTimings(false);
 	}
 
 	@Subscribe
@@ -141,7 +173,8 @@ public class UltimateVolcanicMinePlugin extends Plugin
 		vmGameState = client.getVarbitValue(VARBIT_GAME_STATE);
 		if (vmGameState == VM_GAME_STATE_IN_LOBBY) {
 			stabilityTracker.initialize();
-			ventStatusPredicter.initialize();
+			if(predictionWorker != null) predictionWorker.initialize();
+			else ventStatusPredicter.initialize();
 			futureStabilityTracker.initialize();
 			stabilityTracker.setDisplayCount(config.stabilityUpdateHistoryCount());
 			futureStabilityTracker.setDisplayCount(config.predictedStabilityChangeHistoryCount());
@@ -151,21 +184,34 @@ public class UltimateVolcanicMinePlugin extends Plugin
 
 	@Subscribe
 	public void onGameTick(GameTick tick) {
-		if(!isInVM()) {
+		long tickStart = stageTimer.beginTick();
+		try {
+			handleGameTick(tickStart);
+		} finally {
+			stageTimer.endTick(tickStart);
+		}
+	}
+	private void handleGameTick(long lapStart) {
+		boolean isInVM = isInVM();
+		lapStart = stageTimer.lap(TickStageTimer.Stage.IN_VM, lapStart);
+		if(!isInVM) {
 			vmGameState = VM_GAME_STATE_NONE;
-			StabilityUpdateInfo.resetPlayers();
+			if(predictionWorker != null) predictionWorker.resetPlayers();
+			else StabilityUpdateInfo.resetPlayers();
+			stopRecording();
 			infoBoxManager.removeInfoBox(capInfoBox);
 			resetGameVariables();
 			return;
 		}
 
 		if(maxPlayerCount > config.expectedTeamSize())
-			VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_EXTRA_PLAYER, ventStatusPredicter.getCurrentTick());
+			VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_EXTRA_PLAYER, getPredictionTick());
 
 		int newTimeRemaining = client.getVarbitValue(VARBIT_TIME_REMAINING);
 		if(newTimeRemaining != timeRemainingFromServer) {
 			estimatedTimeRemaining = timeRemainingFromServer = newTimeRemaining;
 		} else --estimatedTimeRemaining;
+		lapStart = stageTimer.lap(TickStageTimer.Stage.NOTIFICATIONS, lapStart);
 
         pickaxeProtector.getStartingPickaxes();
         if(pickaxeProtector.isPickaxeDropped()) pickaxeProtector.incrementTicksDropped();
@@ -176,84 +222,98 @@ public class UltimateVolcanicMinePlugin extends Plugin
 				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PICKAXE_DESPAWN, ticksSinceLobbyStart);
 		}
 		++ticksSinceLobbyStart;
+		lapStart = stageTimer.lap(TickStageTimer.Stage.PICKAXE, lapStart);
 
         if(!hasGameStarted()) return;
 
-		StabilityUpdateInfo.setNumPlayers(client.getVarbitValue(VARBIT_PLAYER_COUNT));
+		if(predictionWorker != null) predictionWorker.setNumPlayers(client.getVarbitValue(VARBIT_PLAYER_COUNT));
+		else StabilityUpdateInfo.setNumPlayers(client.getVarbitValue(VARBIT_PLAYER_COUNT));
+		lapStart = stageTimer.lap(TickStageTimer.Stage.PREDICTION, lapStart);
 		timedObjectTracker.updateRockTimers();
+		lapStart = stageTimer.lap(TickStageTimer.Stage.ROCK_TIMERS, lapStart);
 
 		updateVentStatus(client.getVarbitValue(VARBIT_VENT_STATUS_A),
 				client.getVarbitValue(VARBIT_VENT_STATUS_B),
 				client.getVarbitValue(VARBIT_VENT_STATUS_C),
 				client.getVarbitValue(VARBIT_CHAMBER_STATUS));
 		//Update our predicted stability change on the same exact tick the vent status changes
-		if(ventStatusPredicter.isMovementUpdateTick()) {
-			//Check if we have to fix vents in the future
-			int futureChange = ventStatusPredicter.getFutureStabilityChange(config.predictedVentFixScenario());
-			if(futureChange != VentStatus.STARTING_VENT_VALUE) {
-				futureStabilityTracker.addChange(futureChange);
-				if (futureStabilityTracker.isFutureStabilityBad(config.predictedStabilityChange())) {
-					int startTime = 900 - (int)(config.predictedventWarningStartTime() * SECONDS_TO_TICKS);
-					int endTime = 600 + (int)(config.predictedventWarningEndTime() * SECONDS_TO_TICKS);
-					if(estimatedTimeRemaining < startTime && estimatedTimeRemaining > endTime)
-						VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PREDICTED_VENT_FIX, ventStatusPredicter.getCurrentTick());
-				}
-			}
+		if(predictionWorker != null) {
+			//The worker publishes after the client tick so handle each of its movement ticks once
+			PredictionSnapshot snapshot = predictionWorker.getLatestSnapshot();
+			if(snapshot != lastHandledSnapshot && snapshot.isMovementUpdateTick())
+				checkFutureStabilityChange(snapshot.getFutureStabilityChange(config.predictedVentFixScenario()));
+			lastHandledSnapshot = snapshot;
+		}
+		else if(ventStatusPredicter.isMovementUpdateTick()) {
+			checkFutureStabilityChange(ventStatusPredicter.getFutureStabilityChange(config.predictedVentFixScenario()));
 		}
 
 		int currentStability = client.getVarbitValue(VARBIT_STABILITY);
-		if(updateStability(currentStability)) {
+		lapStart = stageTimer.lap(TickStageTimer.Stage.PREDICTION, lapStart);
+		recordTick(currentStability);
+		lapStart = stageTimer.lap(TickStageTimer.Stage.RECORDING, lapStart);
+		boolean isStabilityUpdated = updateStability(currentStability);
+		lapStart = stageTimer.lap(TickStageTimer.Stage.PREDICTION, lapStart);
+		if(isStabilityUpdated) {
 			if(config.ventStatusUpdateHistory()) {
 				Widget widget = client.getWidget(ComponentID.VOLCANIC_MINE_VENT_A_PERCENTAGE+1);
-				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", ventStatusPredicter.getVentStatusText(0, widget.getText()), null);
+				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", getVentStatusText(0, widget.getText()), null);
 				widget = client.getWidget(ComponentID.VOLCANIC_MINE_VENT_B_PERCENTAGE+1);
-				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", ventStatusPredicter.getVentStatusText(1, widget.getText()), null);
+				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", getVentStatusText(1, widget.getText()), null);
 				widget = client.getWidget(ComponentID.VOLCANIC_MINE_VENT_C_PERCENTAGE+1);
-				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", ventStatusPredicter.getVentStatusText(2, widget.getText()), null);
+				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", getVentStatusText(2, widget.getText()), null);
 				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", "Stability Update: " + stabilityTracker.getCurrentChange(), null);
 				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "CyanWarrior4: ", "Time: " + estimatedTimeRemaining, null);
 			}
 
 			//Check if we have to fix vents now
 			if(stabilityTracker.getCurrentChange() < 0 && estimatedTimeRemaining > 595)
-				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PRE_RESET_VENT_FIX, ventStatusPredicter.getCurrentTick());
+				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PRE_RESET_VENT_FIX, getPredictionTick());
 
 			//Check if we should have all 3 vents fixed (post-reset)
 			boolean isPostResetTime = (estimatedTimeRemaining <= (VentStatusTimeline.VM_GAME_RESET_TIME-15) && estimatedTimeRemaining > 305);
 			if(currentStability + (stabilityTracker.getCurrentChange() * 4) <= 0 && isPostResetTime)
-				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_POST_RESET_VENT_FIX, ventStatusPredicter.getCurrentTick());
+				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_POST_RESET_VENT_FIX, getPredictionTick());
 		}
 
 		//Ensure reset will not happen at the very start before the server sends the new game time
 		//Reset around 5:00 when the server sends new unidentified vent
-		if(ventStatusPredicter.getCurrentTick() > VMNotifier.NOTIFICATION_START_COOLDOWN_TICKS &&
+		if(getPredictionTick() > VMNotifier.NOTIFICATION_START_COOLDOWN_TICKS &&
 				timeRemainingFromServer <= VentStatusTimeline.VM_GAME_RESET_TIME) {
 			stabilityTracker.resetStabilityHistory();
 			futureStabilityTracker.resetStabilityHistory();
 		}
 
-		int currentTick = ventStatusPredicter.getCurrentTick();
+		int currentTick = getPredictionTick();
 		if (estimatedTimeRemaining <= (VentStatusTimeline.VM_GAME_RESET_TIME + ventWarningTime))
 			VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_RESET, currentTick);
 
 		if (estimatedTimeRemaining <= eruptionTime) {
 			VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_ERUPTION, currentTick);
 		}
+		lapStart = stageTimer.lap(TickStageTimer.Stage.NOTIFICATIONS, lapStart);
 
-		ventStatusPredicter.updateDisplayState();
+		if(predictionWorker != null) {
+			predictionWorker.endTick();
+			stageTimer.lap(TickStageTimer.Stage.PREDICTION, lapStart);
+			return;
+		}
+		//Predictions that aren't shown are only worked out on ticks that can change them or after being read
 		if(config.ventStatusPrediction()) {
+			ventStatusPredicter.updateDisplayState();
 //			Widget widget = client.getWidget(WidgetID.VOLCANIC_MINE_GROUP_ID, HUD_VENT_A_PERCENTAGE);
 //			if (widget != null) widget.setText(ventStatusPredicter.getVentStatusText(0, widget.getText()));
 //			widget = client.getWidget(WidgetID.VOLCANIC_MINE_GROUP_ID, HUD_VENT_B_PERCENTAGE);
 //			if (widget != null) widget.setText(ventStatusPredicter.getVentStatusText(1, widget.getText()));
 //			widget = client.getWidget(WidgetID.VOLCANIC_MINE_GROUP_ID, HUD_VENT_C_PERCENTAGE);
 //			if (widget != null) widget.setText(ventStatusPredicter.getVentStatusText(2, widget.getText()));
-		}
+		} else ventStatusPredicter.updateRequestedDisplayState();
 
 		ventStatusPredicter.getTimeline().updateTick();
 		if(ventStatusPredicter.getCurrentTick() > VentStatusTimeline.VM_GAME_RESET_TIME) {
 			ventStatusPredicter.reset();
 		}
+		stageTimer.lap(TickStageTimer.Stage.PREDICTION, lapStart);
 	}
 
 	@Subscribe
@@ -267,24 +327,40 @@ public class UltimateVolcanicMinePlugin extends Plugin
 
 		// Mark when an earthquake occurs
 		if (chatMsg.equals("A sudden earthquake strikes the cavern!")) {
-			ventStatusPredicter.markEarthquakeEvent();
+			if(predictionWorker != null) predictionWorker.markEarthquakeEvent();
+			else ventStatusPredicter.markEarthquakeEvent();
+			if(gameRecorder != null) gameRecorder.markEarthquake();
 		}
 	}
 	//Helper functions for testing
 	public boolean updateStability(int newStability) {
 		if(config.lowStabilityPickaxeLeaveProtection()) {
 			if (newStability <= config.pickaxeLeaveStabilityAmount() && pickaxeProtector.isPickaxeDropped())
-				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PICKAXE_LOW_STABILITY, ventStatusPredicter.getCurrentTick());
+				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PICKAXE_LOW_STABILITY, getPredictionTick());
 		}
 
 		if(stabilityTracker.updateStability(newStability)) {
-			ventStatusPredicter.makeStatusState(stabilityTracker.getCurrentChange());
+			if(predictionWorker != null) predictionWorker.makeStatusState(stabilityTracker.getCurrentChange());
+			else ventStatusPredicter.makeStatusState(stabilityTracker.getCurrentChange());
 			return true;
 		}
 		return false;
 	}
 	public void updateVentStatus(int ventA, int ventB, int ventC, int chamberStatus) {
-		ventStatusPredicter.updateVentStatus(new int[]{ventA, ventB, ventC}, chamberStatus);
+		if(predictionWorker != null) predictionWorker.updateVentStatus(ventA, ventB, ventC, chamberStatus);
+		else ventStatusPredicter.ingest(ventA, ventB, ventC, chamberStatus);
+	}
+	public void setBackgroundPrediction(boolean enabled) {
+		if(enabled && predictionWorker == null) {
+			predictionWorker = new VentPredictionWorker(ventStatusPredicter);
+			lastHandledSnapshot = predictionWorker.getLatestSnapshot();
+			predictionWorker.start();
+		}
+		else if(!enabled && predictionWorker != null) {
+			//Waits for queued ticks so the predicter is up to date before using it here again
+			predictionWorker.stop();
+			predictionWorker = null;
+		}
 	}
 	public final VentStatusPredicter getVentStatusPredicter() { return ventStatusPredicter; }
 
@@ -303,7 +379,7 @@ public class UltimateVolcanicMinePlugin extends Plugin
 		if(event.getVarbitId() == VARBIT_PLAYER_COUNT) {
 			//Skip this check if its time to exit the mine
 			if (estimatedTimeRemaining <= VM_EXIT_TIME) return;
-			VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PLAYER_LEAVE, ventStatusPredicter.getCurrentTick());
+			VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PLAYER_LEAVE, getPredictionTick());
 		}
 
 		//Keep track of points for our cap counter
@@ -339,11 +415,11 @@ public class UltimateVolcanicMinePlugin extends Plugin
 		//Vent Status
 		if(config.ventStatusPrediction()) {
 			widget = client.getWidget(ComponentID.VOLCANIC_MINE_VENT_A_PERCENTAGE+1);
-			if (widget != null) widget.setText(ventStatusPredicter.getVentStatusText(0, widget.getText()));
+			if (widget != null) widget.setText(getVentStatusText(0, widget.getText()));
 			widget = client.getWidget(ComponentID.VOLCANIC_MINE_VENT_B_PERCENTAGE+1);
-			if (widget != null) widget.setText(ventStatusPredicter.getVentStatusText(1, widget.getText()));
+			if (widget != null) widget.setText(getVentStatusText(1, widget.getText()));
 			widget = client.getWidget(ComponentID.VOLCANIC_MINE_VENT_C_PERCENTAGE+1);
-			if (widget != null) widget.setText(ventStatusPredicter.getVentStatusText(2, widget.getText()));
+			if (widget != null) widget.setText(getVentStatusText(2, widget.getText()));
 		}
 	}
 
@@ -362,6 +438,72 @@ public class UltimateVolcanicMinePlugin extends Plugin
         pickaxeProtector.resetStartingPickaxes();
 		estimatedTimeRemaining = timeRemainingFromServer = 0;
 		ticksSinceLobbyStart = maxPlayerCount = 0;
+		isRecordingFailed = false;
+	}
+	private void recordTick(int stability) {
+		if(!config.recordGames() || isRecordingFailed) return;
+		try {
+			if(gameRecorder == null) {
+				File directory = new File(RuneLite.RUNELITE_DIR, RECORDING_DIRECTORY);
+				if(!directory.exists() && !directory.mkdirs()) throw new IOException("Unable to create " + directory);
+				gameRecorder = new GameRecorder(new File(directory, System.currentTimeMillis() + ".uvm").toPath());
+			}
+			gameRecorder.recordTick(client.getVarbitValue(VARBIT_VENT_STATUS_A),
+					client.getVarbitValue(VARBIT_VENT_STATUS_B),
+					client.getVarbitValue(VARBIT_VENT_STATUS_C),
+					client.getVarbitValue(VARBIT_CHAMBER_STATUS),
+					stability, client.getVarbitValue(VARBIT_PLAYER_COUNT));
+		} catch(IOException e) {
+			//Don't retry every tick until the next game
+			log.warn("Unable to record volcanic mine game", e);
+			isRecordingFailed = true;
+			stopRecording();
+		}
+	}
+	private void setStageTimings(boolean enabled) {
+		if(enabled == stageTimer.isEnabled()) return;
+		stageTimer.setEnabled(enabled);
+		if(enabled) {
+			stageTimer.clear();
+			overlayManager.add(tickStageOverlay);
+			return;
+		}
+		overlayManager.remove(tickStageOverlay);
+		if(stageTimer.getHistogram(TickStageTimer.Stage.TOTAL).getCount() == 0) return;
+		try {
+			stageTimer.writeReport(new File(RuneLite.RUNELITE_DIR, TIMING_REPORT_FILE).toPath());
+		} catch(IOException e) {
+			log.warn("Unable to save game tick timings", e);
+		}
+	}
+	private void stopRecording() {
+		if(gameRecorder == null) return;
+		try {
+			gameRecorder.close();
+		} catch(IOException e) {
+			log.warn("Unable to save volcanic mine recording", e);
+		}
+		gameRecorder = null;
+	}
+	private void checkFutureStabilityChange(int futureChange) {
+		//Check if we have to fix vents in the future
+		if(futureChange == VentStatus.STARTING_VENT_VALUE) return;
+		futureStabilityTracker.addChange(futureChange);
+		if (futureStabilityTracker.isFutureStabilityBad(config.predictedStabilityChange())) {
+			int startTime = 900 - (int)(config.predictedventWarningStartTime() * SECONDS_TO_TICKS);
+			int endTime = 600 + (int)(config.predictedventWarningEndTime() * SECONDS_TO_TICKS);
+			if(estimatedTimeRemaining < startTime && estimatedTimeRemaining > endTime)
+				VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PREDICTED_VENT_FIX, getPredictionTick());
+		}
+	}
+	//Reads the latest published prediction without waiting on the worker
+	private String getVentStatusText(int index, String startingText) {
+		if(predictionWorker != null) return predictionWorker.getLatestSnapshot().getVentStatusText(index, startingText);
+		return ventStatusPredicter.getVentStatusText(index, startingText);
+	}
+	private int getPredictionTick() {
+		if(predictionWorker != null) return predictionWorker.getLatestSnapshot().getTick();
+		return ventStatusPredicter.getCurrentTick();
 	}
 	private boolean hasGameStarted() {
 		if(vmGameState >= VM_GAME_STATE_IN_GAME) return true;
@@ -428,7 +570,7 @@ public class UltimateVolcanicMinePlugin extends Plugin
 		{
 			case BOULDER_BREAK_STAGE_5_ID:
 				if(config.boulderFinishPickaxeLeaveProtection() && pickaxeProtector.isPickaxeDropped())
-					VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PICKAXE_BOULDER_COMPLETE, ventStatusPredicter.getCurrentTick());
+					VM_notifier.notify(notifier, VMNotifier.NotificationEvents.VM_PICKAXE_BOULDER_COMPLETE, getPredictionTick());
 				//If we finish the game early dont trigger player leave event
 				VM_notifier.removeEvent(VMNotifier.NotificationEvents.VM_PLAYER_LEAVE);
 			case BOULDER_BREAK_STAGE_1_ID:
@@ -0,0 +1,198 @@
+package com.ultimatevm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+//Runs a vent predicter on its own thread so backtracking spikes don't land on the game tick
+//The client thread posts tick events in the order it would have called the predicter
+//and reads the snapshot published at the end of the latest handled tick
+//A lost or failed event stops predicting the rest of that game
+@Slf4j
+public class VentPredictionWorker implements Runnable {
+    //Event types
+    public static final int EVENT_INITIALIZE = 0;
+    public static final int EVENT_NUM_PLAYERS = 1;
+    public static final int EVENT_RESET_PLAYERS = 2;
+    public static final int EVENT_VENT_STATUS = 3;
+    public static final int EVENT_STABILITY_CHANGE = 4;
+    public static final int EVENT_EARTHQUAKE = 5;
+    public static final int EVENT_END_TICK = 6;
+    public static final int EVENT_STOP_GAME = 7;
+
+    private final VentStatusPredicter predicter;
+    private final TickEventQueue events = new TickEventQueue();
+    private final AtomicReference<PredictionSnapshot> latestSnapshot = new AtomicReference<>();
+    private final int[] record = new int[TickEventQueue.RECORD_SIZE];
+    private final int[] futureStabilityChanges = new int[UltimateVolcanicMineConfig.PredictionScenario.values().length];
+    private volatile boolean isRunning = false;
+    private volatile int numDroppedEvents = 0, numFailedEvents = 0;
+    //Client thread - set from a lost event until the next game is queued
+    private boolean isGameDropped = false, isStopPosted = false;
+    //Worker thread - only ticks are counted until the next game
+    private boolean isGameStopped = false;
+    //Player count is kept per thread so it moves with the predicter
+    private volatile int numPlayers;
+    private Thread thread;
+
+    //The worker owns the predicter until it is stopped
+    public VentPredictionWorker(VentStatusPredicter predicter) {
+        this.predicter = predicter;
+        clearFutureStabilityChanges();
+        latestSnapshot.set(new PredictionSnapshot(predicter, futureStabilityChanges));
+    }
+    public void start() {
+        if(thread != null) return;
+        numPlayers = StabilityUpdateInfo.getNumPlayers();
+        isRunning = true;
+        thread = new Thread(this, "Ultimate VM Prediction");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    //Returns once every posted event is handled so the predicter can be used directly again
+    public void stop() {
+        if(thread == null) return;
+        isRunning = false;
+        LockSupport.unpark(thread);
+        boolean isInterrupted = false;
+        while(thread.isAlive()) {
+            try {
+                thread.join();
+            } catch(InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        thread = null;
+        StabilityUpdateInfo.restorePlayers(numPlayers);
+        if(isInterrupted) Thread.currentThread().interrupt();
+    }
+
+    //Client thread
+    public void initialize() { post(EVENT_INITIALIZE, 0, 0, 0, 0); }
+    public void setNumPlayers(int players) { post(EVENT_NUM_PLAYERS, players, 0, 0, 0); }
+    public void resetPlayers() { post(EVENT_RESET_PLAYERS, 0, 0, 0, 0); }
+    public void updateVentStatus(int ventA, int ventB, int ventC, int chamberStatus) {
+        post(EVENT_VENT_STATUS, ventA, ventB, ventC, chamberStatus);
+    }
+    public void makeStatusState(int change) { post(EVENT_STABILITY_CHANGE, change, 0, 0, 0); }
+    public void markEarthquakeEvent() { post(EVENT_EARTHQUAKE, 0, 0, 0, 0); }
+    public void endTick() {
+        post(EVENT_END_TICK, 0, 0, 0, 0);
+        //Only wake the worker once the whole tick is queued
+        if(thread != null) LockSupport.unpark(thread);
+    }
+    private void post(int type, int arg0, int arg1, int arg2, int arg3) {
+        if(isGameDropped) {
+            //The worker has to stop the game before any later tick so it never predicts past the lost event
+            if(!isStopPosted) isStopPosted = events.offer(EVENT_STOP_GAME, 0, 0, 0, 0);
+            if(!isStopPosted || isGameEvent(type)) {
+                ++numDroppedEvents;
+                return;
+            }
+        }
+        if(events.offer(type, arg0, arg1, arg2, arg3)) {
+            if(type == EVENT_INITIALIZE) isGameDropped = false;
+            return;
+        }
+        //A full queue means the worker is minutes behind so give up on the game rather than stall the client
+        ++numDroppedEvents;
+        isGameDropped = true;
+        isStopPosted = false;
+    }
+    private static boolean isGameEvent(int type) {
+        return type == EVENT_VENT_STATUS || type == EVENT_STABILITY_CHANGE || type == EVENT_EARTHQUAKE;
+    }
+
+    //Worker thread
+    @Override
+    public void run() {
+        StabilityUpdateInfo.restorePlayers(numPlayers);
+        while(isRunning || !events.isEmpty()) {
+            if(!events.poll(record)) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                handleEvent(record);
+            } catch(RuntimeException e) {
+                //Keep handling ticks like the event bus does after a failed subscriber but don't trust this game's predictions
+                ++numFailedEvents;
+                log.warn("Vent prediction failed, stopping predictions until the next game", e);
+                stopGame();
+            }
+        }
+        numPlayers = StabilityUpdateInfo.getNumPlayers();
+    }
+    void handleEvent(int[] event) {
+        switch(event[0]) {
+            case EVENT_INITIALIZE:
+                isGameStopped = false;
+                predicter.initialize();
+                break;
+            case EVENT_NUM_PLAYERS:
+                StabilityUpdateInfo.setNumPlayers(event[1]);
+                break;
+            case EVENT_RESET_PLAYERS:
+                StabilityUpdateInfo.resetPlayers();
+                break;
+            case EVENT_STOP_GAME:
+                log.warn("Vent prediction fell behind and dropped {} events, stopping predictions until the next game", numDroppedEvents);
+                stopGame();
+                break;
+            default:
+                if(isGameStopped) {
+                    if(event[0] == EVENT_END_TICK) publishStoppedTick();
+                }
+                else handleGameEvent(event);
+        }
+    }
+    private void handleGameEvent(int[] event) {
+        switch(event[0]) {
+            case EVENT_VENT_STATUS:
+                predicter.ingest(event[1], event[2], event[3], event[4]);
+                //Future changes use the vent status before any stability update this tick
+                if(predicter.isMovementUpdateTick()) {
+                    for(UltimateVolcanicMineConfig.PredictionScenario scenario : UltimateVolcanicMineConfig.PredictionScenario.values())
+                        futureStabilityChanges[scenario.ordinal()] = predicter.getFutureStabilityChange(scenario);
+                }
+                break;
+            case EVENT_STABILITY_CHANGE:
+                predicter.makeStatusState(event[1]);
+                break;
+            case EVENT_EARTHQUAKE:
+                predicter.markEarthquakeEvent();
+                break;
+            case EVENT_END_TICK:
+                predicter.updateDisplayState();
+                latestSnapshot.set(new PredictionSnapshot(predicter, futureStabilityChanges));
+                clearFutureStabilityChanges();
+                predicter.getTimeline().updateTick();
+                if(predicter.getCurrentTick() > VentStatusTimeline.VM_GAME_RESET_TIME) predicter.reset();
+                break;
+        }
+    }
+    private void stopGame() {
+        if(isGameStopped) return;
+        isGameStopped = true;
+        clearFutureStabilityChanges();
+        latestSnapshot.set(new PredictionSnapshot(predicter.getCurrentTick(), futureStabilityChanges));
+    }
+    //Ticks are still published so anything timed off the snapshot keeps counting
+    private void publishStoppedTick() {
+        latestSnapshot.set(new PredictionSnapshot(predicter.getCurrentTick(), futureStabilityChanges));
+        predicter.getTimeline().updateTick();
+    }
+    private void clearFutureStabilityChanges() {
+        for(int i = 0; i < futureStabilityChanges.length; ++i)
+            futureStabilityChanges[i] = VentStatus.STARTING_VENT_VALUE;
+    }
+
+    //Accessors
+    public final PredictionSnapshot getLatestSnapshot() { return latestSnapshot.get(); }
+    public boolean isRunning() { return thread != null; }
+    public int getNumDroppedEvents() { return numDroppedEvents; }
+    public int getNumFailedEvents() { return numFailedEvents; }
+    boolean isGameStopped() { return isGameStopped; }
+    public int getNumQueuedEvents() { return events.size(); }
+}
@@ -0,0 +1,205 @@
+package com.ultimatevm;
+
+import static com.ultimatevm.VentStatus.MAX_VENT_VALUE;
+import static com.ultimatevm.VentStatus.MIN_VENT_VALUE;
+import static com.ultimatevm.VentStatus.STARTING_VENT_VALUE;
+
+//Every candidate value of an unknown vent as one bit of a 128 bit set
+//Clipping, merging and overlap checks are a couple of bitwise ops instead of interval branching
+//The lower and upper bounds VentStatus uses are the first run of values and everything from the second run on
+public class VentRangeMask {
+    public static final int NUM_VALUES = MAX_VENT_VALUE + 1;
+    //Values 64..100 live in the high word
+    private static final long HIGH_VALUE_MASK = (1L << (NUM_VALUES - Long.SIZE)) - 1;
+    private static final long LOW_SLOW_MOVEMENT_MASK = getWordBits(41, 59, 0);
+    private long low, high;
+
+    public VentRangeMask() {}
+    public VentRangeMask(int start, int end) {
+        setRange(start, end);
+    }
+    public VentRangeMask(VentRangeMask mask) {
+        setEqualTo(mask);
+    }
+    //Identified vents are their actual value and vents without a range have no candidates
+    public VentRangeMask(VentStatus vent) {
+        if(vent.isIdentified()) {
+            setRange(vent.getActualValue(), vent.getActualValue());
+            return;
+        }
+        if(!vent.isRangeDefined()) return;
+        setRange(vent.getLowerBoundStart(), vent.getLowerBoundEnd());
+        addRange(vent.getUpperBoundStart(), vent.getUpperBoundEnd());
+    }
+    public void setEqualTo(VentRangeMask mask) {
+        low = mask.low;
+        high = mask.high;
+    }
+    public void clear() {
+        low = high = 0;
+    }
+
+    public void setRange(int start, int end) {
+        clear();
+        addRange(start, end);
+    }
+    //Merge a range of values in
+    public void addRange(int start, int end) {
+        start = capVentValue(start);
+        end = capVentValue(end);
+        low |= getWordBits(start, end, 0);
+        high |= getWordBits(start, end, Long.SIZE);
+    }
+    //Inner bounds clipping - only keep values within the range
+    public void retainRange(int start, int end) {
+        low &= getWordBits(start, end, 0);
+        high &= getWordBits(start, end, Long.SIZE);
+    }
+    //Outer bounds clipping - drop every value within the range
+    public void removeRange(int start, int end) {
+        low &= ~getWordBits(start, end, 0);
+        high &= ~getWordBits(start, end, Long.SIZE);
+    }
+    public void add(VentRangeMask mask) {
+        low |= mask.low;
+        high |= mask.high;
+    }
+    public void retain(VentRangeMask mask) {
+        low &= mask.low;
+        high &= mask.high;
+    }
+    public void remove(VentRangeMask mask) {
+        low &= ~mask.low;
+        high &= ~mask.high;
+    }
+
+    //Moves every candidate the way VentStatus.updateMovement moves its ranges
+    //Values between 41 and 59 move one less and values past 0 or 100 stop there
+    public void updateMovement(int direction, int minMoveRate, int maxMoveRate) {
+        if(direction == 0 || isEmpty()) return;
+        long slowLow = low & LOW_SLOW_MOVEMENT_MASK;
+        long fastLow = low & ~LOW_SLOW_MOVEMENT_MASK, fastHigh = high;
+        clear();
+        for(int rate = minMoveRate; rate <= maxMoveRate; ++rate) {
+            addShifted(fastLow, fastHigh, Math.max(0, rate) * direction);
+            addShifted(slowLow, 0, Math.max(0, rate - 1) * direction);
+        }
+    }
+    private void addShifted(long fromLow, long fromHigh, int amount) {
+        if(amount == 0) {
+            low |= fromLow;
+            high |= fromHigh;
+            return;
+        }
+        if(amount > 0) {
+            //Anything pushed past the top stops at 100
+            if((fromLow & getWordBits(NUM_VALUES - amount, MAX_VENT_VALUE, 0)) != 0
+                    || (fromHigh & getWordBits(NUM_VALUES - amount, MAX_VENT_VALUE, Long.SIZE)) != 0)
+                high |= 1L << (MAX_VENT_VALUE - Long.SIZE);
+            if(amount >= NUM_VALUES) return;
+            if(amount >= Long.SIZE) {
+                high |= (fromLow << (amount - Long.SIZE)) & HIGH_VALUE_MASK;
+            } else {
+                high |= ((fromHigh << amount) | (fromLow >>> (Long.SIZE - amount))) & HIGH_VALUE_MASK;
+                low |= fromLow << amount;
+            }
+        } else {
+            amount = -amount;
+            //Anything pushed past the bottom stops at 0
+            if((fromLow & getWordBits(MIN_VENT_VALUE, amount - 1, 0)) != 0
+                    || (fromHigh & getWordBits(MIN_VENT_VALUE, amount - 1, Long.SIZE)) != 0)
+                low |= 1L;
+            if(amount >= NUM_VALUES) return;
+            if(amount >= Long.SIZE) {
+                low |= fromHigh >>> (amount - Long.SIZE);
+            } else {
+                low |= (fromLow >>> amount) | (fromHigh << (Long.SIZE - amount));
+                high |= fromHigh >>> amount;
+            }
+        }
+    }
+
+    //Sets a VentStatus' ranges to the bounds of this mask
+    public void applyTo(VentStatus vent) {
+        vent.clearRanges();
+        if(isEmpty()) return;
+        vent.setUpperBoundRange(getUpperBoundStart(), getUpperBoundEnd());
+        vent.setLowerBoundRange(getLowerBoundStart(), getLowerBoundEnd());
+    }
+
+    public boolean isEmpty() { return low == 0 && high == 0; }
+    public boolean contains(int value) {
+        if(value < MIN_VENT_VALUE || value > MAX_VENT_VALUE) return false;
+        if(value < Long.SIZE) return (low & (1L << value)) != 0;
+        return (high & (1L << (value - Long.SIZE))) != 0;
+    }
+    public boolean isWithinRange(int start, int end) {
+        return (low & getWordBits(start, end, 0)) != 0 || (high & getWordBits(start, end, Long.SIZE)) != 0;
+    }
+    public boolean intersects(VentRangeMask mask) {
+        return (low & mask.low) != 0 || (high & mask.high) != 0;
+    }
+    public boolean isTwoSeperateValues() {
+        return !isEmpty() && getNextSetValue(getLowerBoundEnd() + 1) != -1;
+    }
+    public int getNumValues() { return Long.bitCount(low) + Long.bitCount(high); }
+
+    //Bounds in the same form VentStatus keeps them - unset when there are no candidates
+    public int getLowerBoundStart() {
+        if(isEmpty()) return STARTING_VENT_VALUE;
+        return low != 0 ? Long.numberOfTrailingZeros(low) : Long.SIZE + Long.numberOfTrailingZeros(high);
+    }
+    public int getLowerBoundEnd() {
+        if(isEmpty()) return STARTING_VENT_VALUE;
+        return getNextClearValue(getLowerBoundStart()) - 1;
+    }
+    public int getUpperBoundStart() {
+        if(isEmpty()) return STARTING_VENT_VALUE;
+        int secondStart = getNextSetValue(getLowerBoundEnd() + 1);
+        return secondStart == -1 ? getLowerBoundStart() : secondStart;
+    }
+    public int getUpperBoundEnd() {
+        if(isEmpty()) return STARTING_VENT_VALUE;
+        return high != 0 ? 2 * Long.SIZE - 1 - Long.numberOfLeadingZeros(high) : Long.SIZE - 1 - Long.numberOfLeadingZeros(low);
+    }
+
+    //Helpers
+    private int getNextSetValue(int from) {
+        if(from < Long.SIZE) {
+            long bits = low & (-1L << from);
+            if(bits != 0) return Long.numberOfTrailingZeros(bits);
+            from = Long.SIZE;
+        }
+        if(from > MAX_VENT_VALUE) return -1;
+        long bits = high & (-1L << (from - Long.SIZE));
+        return bits == 0 ? -1 : Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+    private int getNextClearValue(int from) {
+        if(from < Long.SIZE) {
+            long bits = ~low & (-1L << from);
+            if(bits != 0) return Long.numberOfTrailingZeros(bits);
+            from = Long.SIZE;
+        }
+        long bits = ~high & (-1L << (from - Long.SIZE));
+        return Math.min(NUM_VALUES, Long.SIZE + Long.numberOfTrailingZeros(bits));
+    }
+    //Bits for the values in a range that fall within the word starting at the given value
+    private static long getWordBits(int start, int end, int wordStart) {
+        start = Math.max(start, wordStart);
+        end = Math.min(end, Math.min(MAX_VENT_VALUE, wordStart + Long.SIZE - 1));
+        if(start > end) return 0;
+        int numBits = end - start + 1;
+        long bits = numBits == Long.SIZE ? -1L : (1L << numBits) - 1;
+        return bits << (start - wordStart);
+    }
+    private static int capVentValue(int value) { return Math.min(MAX_VENT_VALUE, Math.max(MIN_VENT_VALUE, value)); }
+
+    @Override
+    public boolean equals(Object o) {
+        if(!(o instanceof VentRangeMask)) return false;
+        VentRangeMask mask = (VentRangeMask)o;
+        return low == mask.low && high == mask.high;
+    }
+    @Override
+    public int hashCode() { return Long.hashCode(low) * 31 + Long.hashCode(high); }
+}
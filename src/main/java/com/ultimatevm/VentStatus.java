@@ -1,5 +1,7 @@
 package com.ultimatevm;
 
+import java.util.Arrays;
+
 public class VentStatus {
     public static final int STARTING_VENT_VALUE = 127;
     public static final int MIN_VENT_VALUE = 0;
@@ -11,7 +13,6 @@ public class VentStatus {
     public static final int MIN_RESET_SOLO_VENT_VALUE = 25;
     public static final float VENT_STABILITY_WEIGHT = 16.0f;
     public static int BASE_MOVE_RATE = 2;
-    public static int[][] pointsToLowerRanges = null, pointsToUpperRanges = null;
 
 
     public enum VentChangeStateFlag {
@@ -37,72 +38,62 @@ public class VentStatus {
     private int lowerBoundStart, lowerBoundEnd;
     private int upperBoundStart, upperBoundEnd;
     private int totalBoundStart, totalBoundEnd;
-
-    private static void makePointsToRangeTable() {
-        if(pointsToLowerRanges != null && pointsToUpperRanges != null) return;
-        pointsToLowerRanges = new int[(int)VENT_STABILITY_WEIGHT+1][2];
-        pointsToUpperRanges = new int[(int)VENT_STABILITY_WEIGHT+1][2];
-
-        //Mid values
-        pointsToLowerRanges[16][0] = pointsToUpperRanges[16][0] = 47;
-        pointsToLowerRanges[16][1] = pointsToUpperRanges[16][1] = 53;
-        //Lower values
-        pointsToLowerRanges[15][0] = 44; pointsToLowerRanges[15][1] = 46;
-        pointsToLowerRanges[14][0] = 41; pointsToLowerRanges[14][1] = 43;
-        pointsToLowerRanges[13][0] = 38; pointsToLowerRanges[13][1] = 40;
-        pointsToLowerRanges[12][0] = 35; pointsToLowerRanges[12][1] = 37;
-        pointsToLowerRanges[11][0] = 32; pointsToLowerRanges[11][1] = 34;
-        pointsToLowerRanges[10][0] = 29; pointsToLowerRanges[10][1] = 31;
-        pointsToLowerRanges[9][0] = 26; pointsToLowerRanges[9][1] = 28;
-        pointsToLowerRanges[8][0] = 22; pointsToLowerRanges[8][1] = 25;
-        pointsToLowerRanges[7][0] = 19; pointsToLowerRanges[7][1] = 21;
-        pointsToLowerRanges[6][0] = 16; pointsToLowerRanges[6][1] = 18;
-        pointsToLowerRanges[5][0] = 13; pointsToLowerRanges[5][1] = 15;
-        pointsToLowerRanges[4][0] = 10; pointsToLowerRanges[4][1] = 12;
-        pointsToLowerRanges[3][0] = 7; pointsToLowerRanges[3][1] = 9;
-        pointsToLowerRanges[2][0] = 4; pointsToLowerRanges[2][1] = 6;
-        pointsToLowerRanges[1][0] = 1; pointsToLowerRanges[1][1] = 3;
-        pointsToLowerRanges[0][0] = pointsToLowerRanges[0][1] = 0;
-        //Upper values
-        pointsToUpperRanges[15][0] = 54; pointsToLowerRanges[15][1] = 56;
-        pointsToUpperRanges[14][0] = 57; pointsToLowerRanges[14][1] = 59;
-        pointsToUpperRanges[13][0] = 60; pointsToLowerRanges[13][1] = 62;
-        pointsToUpperRanges[12][0] = 63; pointsToLowerRanges[12][1] = 65;
-        pointsToUpperRanges[11][0] = 66; pointsToLowerRanges[11][1] = 68;
-        pointsToUpperRanges[10][0] = 69; pointsToUpperRanges[10][1] = 71;
-        pointsToUpperRanges[9][0] = 72; pointsToUpperRanges[9][1] = 74;
-        pointsToUpperRanges[8][0] = 75; pointsToUpperRanges[8][1] = 78;
-        pointsToUpperRanges[7][0] = 79; pointsToUpperRanges[7][1] = 81;
-        pointsToUpperRanges[6][0] = 82; pointsToUpperRanges[6][1] = 84;
-        pointsToUpperRanges[5][0] = 85; pointsToUpperRanges[5][1] = 87;
-        pointsToUpperRanges[4][0] = 88; pointsToUpperRanges[4][1] = 90;
-        pointsToUpperRanges[3][0] = 91; pointsToUpperRanges[3][1] = 93;
-        pointsToUpperRanges[2][0] = 94; pointsToUpperRanges[2][1] = 96;
-        pointsToUpperRanges[1][0] = 97; pointsToUpperRanges[1][1] = 99;
-        pointsToUpperRanges[0][0] = pointsToUpperRanges[0][1] = 100;
+    //Bumped on every change so owners can tell when results worked out from this vent are stale
+    private int version;
+
+    //Lookup tables over every vent value
+    private static final int[] stabilityInfluences = new int[MAX_VENT_VALUE+1];
+    private static final int[] movementInfluences = new int[MAX_VENT_VALUE+1];
+    //Values on each side of 50 that give each point count
+    private static final int[] lowerRangeStarts = new int[(int)VENT_STABILITY_WEIGHT+1];
+    private static final int[] lowerRangeEnds = new int[(int)VENT_STABILITY_WEIGHT+1];
+    private static final int[] upperRangeStarts = new int[(int)VENT_STABILITY_WEIGHT+1];
+    private static final int[] upperRangeEnds = new int[(int)VENT_STABILITY_WEIGHT+1];
+    static {
+        for(int value = MIN_VENT_VALUE; value <= MAX_VENT_VALUE; ++value) {
+            stabilityInfluences[value] = calcStabilityInfluence(value);
+            movementInfluences[value] = calcMovementInfluence(value);
+        }
+        //Invert the influence table into the values on each side of 50 that give each point count
+        for(int[] table : new int[][]{lowerRangeStarts, lowerRangeEnds, upperRangeStarts, upperRangeEnds})
+            Arrays.fill(table, -1);
+        for(int value = MIN_VENT_VALUE; value <= MAX_VENT_VALUE; ++value) {
+            int points = stabilityInfluences[value];
+            int[] rangeStarts = value <= PERFECT_VENT_VALUE ? lowerRangeStarts : upperRangeStarts;
+            int[] rangeEnds = value <= PERFECT_VENT_VALUE ? lowerRangeEnds : upperRangeEnds;
+            if(rangeStarts[points] == -1) rangeStarts[points] = value;
+            rangeEnds[points] = value;
+        }
+        //Values around 50 give the same points on both sides so both ranges are the whole span
+        int perfectPoints = stabilityInfluences[PERFECT_VENT_VALUE];
+        upperRangeStarts[perfectPoints] = lowerRangeStarts[perfectPoints];
+        lowerRangeEnds[perfectPoints] = upperRangeEnds[perfectPoints];
     }
-    public static int getStabilityInfluence(int ventValue) {
+    private static int calcStabilityInfluence(int ventValue) {
         float percentValue = PERFECT_VENT_VALUE - Math.abs(PERFECT_VENT_VALUE - ventValue);
         percentValue = (percentValue / 50.0f) * VENT_STABILITY_WEIGHT;
         return (int) Math.ceil(percentValue);
     }
-    public static int getMovementInfluenceOfValue(int value) {
+    private static int calcMovementInfluence(int value) {
         if(value > 40 && value < 60) return -1;
         return 0;
     }
-    public static int[] pointsToLowerRange(int points) {
-        if(pointsToLowerRanges == null) return new int[]{-1, -1};
-        if(points < 0 || points > (int)VENT_STABILITY_WEIGHT) return new int[]{-1, -1};
-        return pointsToLowerRanges[points];
+    public static int getStabilityInfluence(int ventValue) {
+        if(ventValue < MIN_VENT_VALUE || ventValue > MAX_VENT_VALUE) return calcStabilityInfluence(ventValue);
+        return stabilityInfluences[ventValue];
     }
-    public static int[] pointsToUpperRange(int points) {
-        if(pointsToUpperRanges == null) return new int[]{-1, -1};
-        if(points < 0 || points > (int)VENT_STABILITY_WEIGHT) return new int[]{-1, -1};
-        return pointsToUpperRanges[points];
+    public static int getMovementInfluenceOfValue(int value) {
+        if(value < MIN_VENT_VALUE || value > MAX_VENT_VALUE) return calcMovementInfluence(value);
+        return movementInfluences[value];
     }
+    //Point counts no value gives have a range of -1
+    public static int getLowerRangeStart(int points) { return isValidPoints(points) ? lowerRangeStarts[points] : -1; }
+    public static int getLowerRangeEnd(int points) { return isValidPoints(points) ? lowerRangeEnds[points] : -1; }
+    public static int getUpperRangeStart(int points) { return isValidPoints(points) ? upperRangeStarts[points] : -1; }
+    public static int getUpperRangeEnd(int points) { return isValidPoints(points) ? upperRangeEnds[points] : -1; }
+    private static boolean isValidPoints(int points) { return points >= 0 && points <= (int)VENT_STABILITY_WEIGHT; }
 
     public VentStatus(char name) {
-        makePointsToRangeTable();
         ventName = name;
         this.movementDirection = 0;
         actualValue = STARTING_VENT_VALUE;
@@ -126,6 +117,7 @@ public class VentStatus {
         setStartingRanges();
     }
     public void setEqualTo(VentStatus vent) {
+        ++version;
         this.ventName = vent.ventName;
         this.actualValue = vent.actualValue;
         this.movementDirection = vent.movementDirection;
@@ -138,7 +130,37 @@ public class VentStatus {
         this.totalBoundEnd = vent.totalBoundEnd;
         this.isFreezeClipAccurate = vent.isFreezeClipAccurate;
     }
+    //Packed form used by StatePool - values fit in a signed byte each
+    long pack() {
+        long packed = (actualValue & 0xFFL)
+                | ((lowerBoundStart & 0xFFL) << 8) | ((lowerBoundEnd & 0xFFL) << 16)
+                | ((upperBoundStart & 0xFFL) << 24) | ((upperBoundEnd & 0xFFL) << 32)
+                | ((totalBoundStart & 0xFFL) << 40) | ((totalBoundEnd & 0xFFL) << 48)
+                | ((long)(movementDirection + 1) << 56);
+        if(isFreezeClipAccurate) packed |= (1L << 58);
+        return packed;
+    }
+    void unpack(long packed) {
+        ++version;
+        actualValue = (byte)packed;
+        lowerBoundStart = (byte)(packed >> 8);
+        lowerBoundEnd = (byte)(packed >> 16);
+        upperBoundStart = (byte)(packed >> 24);
+        upperBoundEnd = (byte)(packed >> 32);
+        totalBoundStart = (byte)(packed >> 40);
+        totalBoundEnd = (byte)(packed >> 48);
+        movementDirection = (int)((packed >> 56) & 3) - 1;
+        isFreezeClipAccurate = (packed & (1L << 58)) != 0;
+    }
+    public boolean isEqualTo(VentStatus vent) {
+        return actualValue == vent.actualValue && movementDirection == vent.movementDirection
+                && lowerBoundStart == vent.lowerBoundStart && lowerBoundEnd == vent.lowerBoundEnd
+                && upperBoundStart == vent.upperBoundStart && upperBoundEnd == vent.upperBoundEnd
+                && totalBoundStart == vent.totalBoundStart && totalBoundEnd == vent.totalBoundEnd
+                && isFreezeClipAccurate == vent.isFreezeClipAccurate;
+    }
     public int update(int actualValue, int direction) {
+        ++version;
         int bitState = 0;
         int prevValue = this.actualValue;
         this.actualValue = actualValue;
@@ -170,6 +192,7 @@ public class VentStatus {
     }
     public void updateMovement(int[] outsideVentInfluence) {
         if(isIdentified()) return;
+        ++version;
         //Get our possible movement amounts
         int currentMinMoveRate = BASE_MOVE_RATE + outsideVentInfluence[0];
         int currentMaxMoveRate = BASE_MOVE_RATE + outsideVentInfluence[1];
@@ -211,6 +234,7 @@ public class VentStatus {
         setUpperBoundRange(upperStart + upperStartMove, upperEnd + upperEndMove);
     }
     public void clearRanges() {
+        ++version;
         lowerBoundStart = lowerBoundEnd = STARTING_VENT_VALUE;
         upperBoundStart = upperBoundEnd = STARTING_VENT_VALUE;
     }
@@ -221,14 +245,17 @@ public class VentStatus {
         return isUpperBoundWithinRange(start-1, end+1);
     }
     public void mergeLowerBoundRanges(int start, int end) {
+        ++version;
         lowerBoundStart = Math.min(lowerBoundStart, capVentValue(start));
         lowerBoundEnd = Math.max(lowerBoundEnd, capVentValue(end));
     }
     public void mergeUpperBoundRanges(int start, int end) {
+        ++version;
         upperBoundStart = Math.min(upperBoundStart, capVentValue(start));
         upperBoundEnd = Math.max(upperBoundEnd, capVentValue(end));
     }
     public void setLowerBoundRange(int start, int end) {
+        ++version;
         lowerBoundStart = capVentValue(start);
         lowerBoundEnd = capVentValue(end);
         //Merge ranges if they are both within bounds
@@ -238,6 +265,7 @@ public class VentStatus {
         }
     }
     public void setUpperBoundRange(int start, int end) {
+        ++version;
         upperBoundStart = capVentValue(start);
         upperBoundEnd = capVentValue(end);
         //Merge ranges if they are both within bounds
@@ -333,6 +361,7 @@ public class VentStatus {
         return true;
     }
     public void flipDirection() {
+        ++version;
         movementDirection *= -1;
     }
 
@@ -481,6 +510,7 @@ public class VentStatus {
     }
     public void doReversedMovement(int outsideVentInfluence) {
         if(!isRangeDefined()) return;
+        ++version;
         int currentMoveRate = Math.max(0, BASE_MOVE_RATE + outsideVentInfluence) * movementDirection;
         if(!isIdentified() && !isFreezeClipAccurate()) {
             if(!isBounded(lowerBoundStart)) lowerBoundStart = capVentValue(getLowerBoundStart() - currentMoveRate);
@@ -507,12 +537,14 @@ public class VentStatus {
         if(ventName != 'A') return;
         if(getLowerBoundStart() != 40 && getLowerBoundStart() != 60) return;
         if(!canBeFreezeClipAccurate()) return;
+        ++version;
         isFreezeClipAccurate = true;
     }
 
     //Helpers
     private int capVentValue(int value) { return Math.min(MAX_VENT_VALUE, Math.max(MIN_VENT_VALUE, value));}
     private void setStartingRanges() {
+        ++version;
         isFreezeClipAccurate = false;
         clearRanges();
         setLowerBoundRange(totalBoundStart, totalBoundEnd);
@@ -522,16 +554,7 @@ public class VentStatus {
         return value == 100 || value == 0;
     }
     private int determineReversedInfluence(int outsideVentInfluence, int value) {
-        int[] infPossibilities = new int[BASE_MOVE_RATE];
-        for(int i = 0; i < BASE_MOVE_RATE; ++i) {
-            int move = (outsideVentInfluence + (BASE_MOVE_RATE - i)) * movementDirection;
-            infPossibilities[i] = getMovementInfluenceOfValue(capVentValue(value - move));
-        }
-        //Exit on freeze, non-freeze mismatch cannot reverse reliably
-        //eg blocked 41 or unblocked 59
-        if(infPossibilities[0] != infPossibilities[1]) return STARTING_VENT_VALUE;
-        int move = Math.max(0, (outsideVentInfluence + BASE_MOVE_RATE)) * movementDirection;
-        return getMovementInfluenceOfValue(capVentValue(value - move));
+        return ReverseMovementTable.getReversedInfluence(value, movementDirection, outsideVentInfluence);
     }
 
 
@@ -545,6 +568,7 @@ public class VentStatus {
     public int getUpperBoundEnd() { return upperBoundEnd; }
     public int getTotalBoundStart() { return totalBoundStart; }
     public int getTotalBoundEnd() { return totalBoundEnd; }
+    public int getVersion() { return version; }
     public boolean canBeFreezeClipAccurate() {
         if(isIdentified()) return false;
         if(isTwoSeperateValues()) return false;
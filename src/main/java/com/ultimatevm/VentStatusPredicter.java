@@ -10,6 +10,17 @@ public class VentStatusPredicter {
     private VentStatusTimeline timeline;
     private StatusState displayState;
     private int numTicksNoMove;
+    private PredictionMetrics metrics;
+    private final JointVentTracker jointVentTracker = new JointVentTracker();
+    //Display state with the joint vent ranges applied - shown until the next tick but never recorded by the timeline
+    private final StatusState jointDisplayState = new StatusState();
+    private boolean isJointDisplayStateShown;
+    //Reads since the last update and whether the display state is behind the timeline
+    private boolean isDisplayStateRequested, isDisplayStateStale;
+    //Backtracks the timeline had done before the display state was last worked out
+    private int numBacktracksPredicted;
+    //Reused every tick by ingest
+    private final int[] ventChangeStates = new int[NUM_VENTS];
 
 
     public VentStatusPredicter() {
@@ -17,20 +28,39 @@ public class VentStatusPredicter {
     }
     public void initialize() {
         timeline = new VentStatusTimeline();
+        timeline.setMetrics(metrics);
         displayState = new StatusState();
+        jointVentTracker.clear();
+        isJointDisplayStateShown = isDisplayStateStale = false;
+        numBacktracksPredicted = 0;
     }
     public void reset() {
         if(!timeline.isHasReset()) displayState.forceReset();
         timeline.reset();
+        jointVentTracker.clear();
+        isJointDisplayStateShown = false;
     }
     public void updateVentStatus(int[] ventStatus, int chambers) {
-        processVentChangeState(displayState.updateVentStatus(ventStatus, chambers));
+        ingest(ventStatus[0], ventStatus[1], ventStatus[2], chambers);
+    }
+    //Per tick varbit path - only allocates when the timeline records a new state
+    public void ingest(int ventA, int ventB, int ventC, int chambers) {
+        isJointDisplayStateShown = false;
+        displayState.updateVentStatus(ventA, ventB, ventC, chambers, ventChangeStates);
+        if(JointVentTracker.isEnabled()) jointVentTracker.updateVentStatus(displayState, ventChangeStates);
+        else jointVentTracker.clear();
+        processVentChangeState(ventChangeStates);
     }
     public void makeStatusState(int change) {
         timeline.addStabilityUpdateTick(displayState, change);
+        jointVentTracker.updateStability(change);
     }
     public String getVentStatusText(int index, String startingText) {
-        VentStatus[] vents = displayState.getVents();
+        requestDisplayState();
+        return getVentStatusText(getDisplayState(), index, startingText);
+    }
+    public static String getVentStatusText(StatusState state, int index, String startingText) {
+        VentStatus[] vents = state.getVents();
         if(vents[index].isIdentified() || !vents[index].isRangeDefined()) return startingText;
         return startingText.substring(0, 3) +
                 "<col=00ffff>" +
@@ -42,7 +72,7 @@ public class VentStatusPredicter {
     }
 
     //Helpers
-    private String getVentPercentText(VentStatus vent) {
+    private static String getVentPercentText(VentStatus vent) {
         StringBuilder builder = new StringBuilder();
         if(vent.isTwoSeperateValues()) {
             if(vent.isLowerBoundSingleValue())
@@ -115,6 +145,7 @@ public class VentStatusPredicter {
         if((bitState & 128) == 0) {
             if(++numTicksNoMove == VentStatusTimeline.VENT_MOVE_TICK_TIME) {
                 timeline.addEstimatedMovementTick();
+                jointVentTracker.updateEstimatedMovement();
                 numTicksNoMove = 0;
             }
         }
@@ -127,22 +158,60 @@ public class VentStatusPredicter {
         }
     }
     public void updateDisplayState() {
+        numBacktracksPredicted = timeline.getNumBacktracks();
+        predictDisplayState();
+        isDisplayStateRequested = isDisplayStateStale = false;
+        if(metrics != null) metrics.recordDisplayState(timeline, getDisplayState());
+    }
+    //End of tick update when predictions aren't shown - only works out the display state when something asked
+    //for it or the timeline may record it so skipped ticks are caught up by the next replay without changing it
+    public void updateRequestedDisplayState() {
+        if(isDisplayStateRequested || metrics != null || isDisplayStateRequired()) {
+            updateDisplayState();
+            return;
+        }
+        isDisplayStateStale = true;
+    }
+    //The timeline copies the display state on ticks with events and on movement and stability updates
+    //Otherwise only a backtrack during the last update or a stability mismatch clip changes the prediction
+    public boolean isDisplayStateRequired() {
+        return timeline.hasEventOccuredThisTick() || isNextTickMovementUpdate() || timeline.isNextTickStabilityUpdate()
+                || timeline.getNumBacktracks() != numBacktracksPredicted || timeline.isStabilityMismatchClipPossible();
+    }
+    public void requestDisplayState() { isDisplayStateRequested = true; }
+    private void predictDisplayState() {
+        isJointDisplayStateShown = false;
         if(StabilityUpdateInfo.getNumPlayers() > HIGHEST_STABLE_RNG_PLAYER_COUNT) return;
         if(displayState.isAllVentsIdentified()) return;
         StatusState predictedState = timeline.getCurrentPredictionState();
-        if(predictedState == null) return;
-        for(int i = 0; i < NUM_VENTS; ++i) {
-            VentStatus vent = displayState.getVents()[i];
-            if(vent.isIdentified()) continue;
-            vent.setEqualTo(predictedState.getVents()[i]);
+        if(predictedState != null) {
+            for(int i = 0; i < NUM_VENTS; ++i) {
+                VentStatus vent = displayState.getVents()[i];
+                if(vent.isIdentified()) continue;
+                vent.setEqualTo(predictedState.getVents()[i]);
+            }
         }
+        if(!jointVentTracker.isActive()) return;
+        jointDisplayState.setEqualTo(displayState);
+        jointVentTracker.narrowRanges(jointDisplayState);
+        isJointDisplayStateShown = true;
     }
 
     public int getFutureStabilityChange(UltimateVolcanicMineConfig.PredictionScenario scenario) {
-        return displayState.getFutureStabilityChange(scenario);
+        requestDisplayState();
+        return getDisplayState().getFutureStabilityChange(scenario);
+    }
+    public final StatusState getDisplayState() { return isJointDisplayStateShown ? jointDisplayState : displayState; }
+    public final PredictionMetrics getMetrics() { return metrics; }
+    //Metrics follow the predicter to each new game's timeline
+    public void setMetrics(PredictionMetrics metrics) {
+        this.metrics = metrics;
+        timeline.setMetrics(metrics);
     }
-    public final StatusState getDisplayState() { return displayState; }
+    public final JointVentTracker getJointVentTracker() { return jointVentTracker; }
     public final VentStatusTimeline getTimeline() { return timeline; }
     public final int getCurrentTick() { return timeline.getCurrentTick(); }
     public boolean isMovementUpdateTick() { return getCurrentTick() % VentStatusTimeline.VENT_MOVE_TICK_TIME == SLOWEST_VENT_UPDATE_TICK;}
+    public boolean isNextTickMovementUpdate() { return (getCurrentTick() + 1) % VentStatusTimeline.VENT_MOVE_TICK_TIME == SLOWEST_VENT_UPDATE_TICK;}
+    public boolean isDisplayStateStale() { return isDisplayStateStale; }
 }
@@ -1,6 +1,5 @@
 package com.ultimatevm;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 
@@ -10,6 +9,8 @@ public class VentStatusTimeline {
     public static final int STABILITY_UPDATE_TICK_TIME = 25;
     public static final int VM_GAME_FULL_TIME = 1000;
     public static final int VM_GAME_RESET_TIME = 500;
+    public static final int DEFAULT_MAX_POSSIBLE_STATES = 32;
+    public static final int MIN_POSSIBLE_STATES = 2;
 
     //Flags
     public static final int DIRECTION_CHANGED_FLAG = 16;
@@ -33,27 +34,53 @@ public class VentStatusTimeline {
     //clip |vents| space completed?
     //0 0 0 0 0 0  0
 
+    //Events that change cached states during a replay
+    public static final int REPLAY_EVENT_MASK = (1 << DIRECTION_CHANGED_FLAG) | (1 << IDENTIFIED_VENT_FLAG)
+            | (1 << MOVEMENT_UPDATE_FLAG) | (1 << STABILITY_UPDATE_FLAG) | (1 << ESTIMATED_MOVEMENT_FLAG);
+    //Events checked while backtracking vent values
+    public static final int BACKTRACK_EVENT_MASK = (1 << DIRECTION_CHANGED_FLAG) | (1 << MOVEMENT_UPDATE_FLAG)
+            | (1 << STABILITY_UPDATE_FLAG) | (1 << EARTHQUAKE_EVENT_FLAG);
+
+    //Skipped movements each add a possibility so laggy sessions are capped at this many per cache
+    static private volatile int maxPossibleStates = DEFAULT_MAX_POSSIBLE_STATES;
+    static public void setMaxPossibleStates(int maxStates) {
+        maxPossibleStates = Math.max(MIN_POSSIBLE_STATES, maxStates);
+    }
+    static public int getMaxPossibleStates() { return maxPossibleStates; }
+    //Weights for how implausible a possibility is
+    static final int FREEZE_CLIP_PENALTY = 50;
+    static final int AGE_PENALTY = 4;
+
     private int currentTick, startingTick;
     private int currentMovementTick, firstStabilityUpdateTick;
+    //Every timeline change goes through the event log - the flags below are its materialized view
+    private TimelineEventLog eventLog;
+    private TimelineEventView eventView;
     private int[] timeline;
+    private TimelineEventIndex eventIndex;
     private int[] identifiedVentTick;
     private StatusState[] identifiedVentStates;
     private TimelineCache[] timelineCaches;
-    private int numIdentifiedVents;
+    private int numIdentifiedVents, numBacktracks;
+    private final ParallelPredictionEvaluator parallelEvaluator = new ParallelPredictionEvaluator(this);
+    private PredictionMetrics metrics;
     private boolean hasReset = false;
     StatusState initialState;
     StabilityUpdateInfo initialStabInfo;
-    HashMap<Integer, StatusState> tickToMovementVentState;
-    HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState;
+    TickIndexedStore<StatusState> tickToMovementVentState;
+    TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState;
 
     public VentStatusTimeline() {
         initialize();
     }
     public void initialize() {
         currentTick = 0;
-        timeline = new int[VM_GAME_FULL_TIME];
-        tickToMovementVentState = new HashMap<>();
-        tickToStabilityUpdateState = new HashMap<>();
+        eventLog = new TimelineEventLog();
+        eventView = new TimelineEventView(eventLog, VM_GAME_FULL_TIME);
+        timeline = eventView.getTimeline();
+        eventIndex = eventView.getEventIndex();
+        tickToMovementVentState = new TickIndexedStore<>(VM_GAME_FULL_TIME);
+        tickToStabilityUpdateState = new TickIndexedStore<>(VM_GAME_FULL_TIME);
         reset();
         hasReset = false;
     }
@@ -82,6 +109,11 @@ public class VentStatusTimeline {
         for(int i = 0; i < timelineCaches.length; ++i)
             timelineCaches[i].initalize(initialState, startingTick);
     }
+    //Replays change the stability updates they pass so every cache starts over after a backtrack
+    private void invalidateCaches() {
+        if(initialState == null) return;
+        initalizeCache();
+    }
     public boolean addInitialState(StatusState startingState) {
         //Only add initial state once for pre reset and post reset
         if(initialState != null) return false;
@@ -94,8 +126,7 @@ public class VentStatusTimeline {
         for(int i = 0; i < StatusState.NUM_VENTS; ++i) {
             if(identifiedVentTick[i] != -1) continue;
             if ((bitState & (1 << i)) != 0) {
-                timeline[currentTick] |= (1 << IDENTIFIED_VENT_FLAG);
-                timeline[currentTick] |= bitState & IDENTIFIED_BIT_MASK;
+                addEvent(TimelineEventLog.EVENT_IDENTIFY, currentTick, bitState);
                 ++numIdentifiedVents;
                 identifiedVentStates[i] = new StatusState(currentState);
                 identifiedVentTick[i] = currentTick;
@@ -117,13 +148,20 @@ public class VentStatusTimeline {
         updatePreviousVentValues(identifiedVentStates[3], currentTick);
     }
     private void updatePreviousVentValues(StatusState startingState, int tick) {
-        clearCache();
+        ++numBacktracks;
         StatusState curState = new StatusState(startingState);
         LinkedList<Integer> stabilityUpdateTicks = new LinkedList<>();
         int numTicksNoMovement = 0, futureMovementTick = Integer.MAX_VALUE;
         for(int i = tick; i > startingTick; --i) {
             //Exit when there is a chain of missing movement updates
             if(numTicksNoMovement > (VENT_MOVE_TICK_TIME * 2)) break;
+            //Jump to the previous event - quiet ticks only count towards missing movement
+            if((timeline[i] & BACKTRACK_EVENT_MASK) == 0) {
+                int prevEventTick = Math.max(eventIndex.prevEvent(i, BACKTRACK_EVENT_MASK), startingTick);
+                numTicksNoMovement += i - prevEventTick;
+                i = prevEventTick + 1;
+                continue;
+            }
 
             if((timeline[i] & (1 << STABILITY_UPDATE_FLAG)) != 0) {
                 //If future movement occured within 10 ticks we can process this now
@@ -154,8 +192,8 @@ public class VentStatusTimeline {
                 if(!curState.reverseMovement(bitMoveState)) break;
                 //update the movement bit info
                 bitMoveState = StatusState.makeMoveBitState(movementState, curState);
-                timeline[i] &= ~(MOVEMENT_BIT_MASK);
-                timeline[i] |= bitMoveState;
+                if((timeline[i] & MOVEMENT_BIT_MASK) != bitMoveState)
+                    addEvent(TimelineEventLog.EVENT_MOVEMENT_CORRECTION, i, bitMoveState);
             } else ++numTicksNoMovement;
 
             if(isEarthquakeDelayMovement(i)) numTicksNoMovement = 0;
@@ -165,7 +203,7 @@ public class VentStatusTimeline {
                 changeStateDirection(curState, i);
             }
         }
-        initalizeCache();
+        invalidateCaches();
     }
     private void clearMoveSkipEstimatedMove() {
         int minTick = Math.max(startingTick, currentTick - (int)(VENT_MOVE_TICK_TIME * 2.5f));
@@ -187,28 +225,27 @@ public class VentStatusTimeline {
         //Exit if the previous movement tick is after the estimated one
         if(prevMoveTick > prevEstMoveTick) return;
         //remove estimated movement tick was added since a movement tick was skipped
-        timeline[prevEstMoveTick] &= ~(1 << ESTIMATED_MOVEMENT_FLAG);
+        removeEstimatedMovementTick(prevEstMoveTick);
     }
     private void fixPreviousEstimatedMoves() {
-        clearCache();
+        ++numBacktracks;
         int updateTick = currentTick % VENT_MOVE_TICK_TIME;
         for(int i = currentTick-1; i >= currentMovementTick; --i) {
             //Clear estimated movement flag
-            timeline[i] &= ~(1 << ESTIMATED_MOVEMENT_FLAG);
+            removeEstimatedMovementTick(i);
             if(i % VENT_MOVE_TICK_TIME == updateTick)
                 addEstimatedMovementTick(i);
         }
-        initalizeCache();
+        invalidateCaches();
     }
 
     public void addDirectionChangeTick(int bitState) {
-        timeline[currentTick] |= (bitState & DIRECTION_CHANGED_BIT_MASK);
-        timeline[currentTick] |= (1 << DIRECTION_CHANGED_FLAG);
+        addEvent(TimelineEventLog.EVENT_DIRECTION, currentTick, bitState);
     }
     public void addEarthquakeEventTick() {
-        timeline[currentTick] |= (1 << EARTHQUAKE_EVENT_FLAG);
+        addEvent(TimelineEventLog.EVENT_EARTHQUAKE, currentTick, 0);
         //Clear estimated movement flag
-        timeline[currentTick] &= ~(1 << ESTIMATED_MOVEMENT_FLAG);
+        removeEstimatedMovementTick(currentTick);
     }
     public void addMovementTick(StatusState currentState, int movementBitState) {
         //A movement tick cannot occur on or before a starting tick
@@ -234,7 +271,7 @@ public class VentStatusTimeline {
         //Estimated movements cannot occur same tick as an earthquake
         if((timeline[tick] & (1 << EARTHQUAKE_EVENT_FLAG)) != 0)
             return false;
-        timeline[tick] |= (1 << ESTIMATED_MOVEMENT_FLAG);
+        addEvent(TimelineEventLog.EVENT_ESTIMATED_MOVE, tick, 0);
         return true;
     }
     private void checkHalfSpace(int tick) {
@@ -269,13 +306,18 @@ public class VentStatusTimeline {
     }
     public StatusState getTimelinePredictionState() {
         //Get the current cache to use
-        TimelineCache cache;
-        if(initialStabInfo == null) {
-            cache = timelineCaches[(-StabilityUpdateInfo.getMinRNGVariation())+1];
-        }
-        else cache = timelineCaches[(-initialStabInfo.getRNGUpdateMod())+1];
-
+        TimelineCache cache = getCurrentCache();
+        replayCache(cache, null);
+        //Backtracking can reset this cache so hold onto the prediction
+        StatusState predictedState = cache.predictedState;
+        finishReplay(predictedState);
+        return predictedState;
+    }
+    //Replays the cache up to the current tick without changing the timeline
+    //Forked replays read stability updates through the fork so changes to them stay private
+    void replayCache(TimelineCache cache, ReplayFork fork) {
         for(; cache.i <= currentTick; ++cache.i) {
+            if((timeline[cache.i] & REPLAY_EVENT_MASK) == 0 && skipQuietTicks(cache)) continue;
             if((timeline[cache.i] & (1 << IDENTIFIED_VENT_FLAG)) != 0) {
                 int idFlags = timeline[cache.i] & IDENTIFIED_BIT_MASK;
                 Iterator<StatusState> iterator = cache.possibleStates.descendingIterator();
@@ -296,16 +338,18 @@ public class VentStatusTimeline {
             if((timeline[cache.i] & (1 << ESTIMATED_MOVEMENT_FLAG)) != 0) {
                 int mostRecentEvent = Math.max(cache.mostRecentIdentifyTick, cache.previousMovementTick);
                 boolean isValueClipped = false, isConsecMoveSkip = (cache.i - mostRecentEvent > VENT_MOVE_TICK_TIME);
-                StatusState newPossibility = new StatusState(cache.possibleStates.getLast());
+                StatusState newPossibility = cache.possibleStates.acquire(cache.possibleStates.getLast());
 
                 //Don't do any freeze clipping unless two movements were skipped
                 if(isConsecMoveSkip) isValueClipped = newPossibility.doFreezeClipping(0);
 
                 //Only set if value wasnt freeze clipped
                 if(!isValueClipped) {
-                    handleSameTickDirectionChangeMovement(newPossibility, cache.i);
+                    handleSameTickDirectionChangeMovement(newPossibility, cache.i, cache.scratchState);
                     cache.possibleStates.addLast(newPossibility);
+                    evictImplausiblePossibilities(cache.possibleStates);
                 }
+                else cache.possibleStates.release(newPossibility);
                 //Set predicted state to the new up to date possibility
                 //If two consecutive movements are skipped just update the predicted state
                 if(isConsecMoveSkip) cache.predictedState = cache.possibleStates.getLast();
@@ -325,7 +369,7 @@ public class VentStatusTimeline {
                     }
 
                     //Update our estimated vent values
-                    handleSameTickDirectionChangeMovement(curState, cache.i);
+                    handleSameTickDirectionChangeMovement(curState, cache.i, cache.scratchState);
                     syncWithMovementState(curState, cache.i);
                 }
                 cache.predictedState = cache.possibleStates.getLast();
@@ -333,17 +377,21 @@ public class VentStatusTimeline {
             if((timeline[cache.i] & (1 << STABILITY_UPDATE_FLAG)) != 0) {
                 Iterator<StatusState> iterator = cache.possibleStates.descendingIterator();
                 StabilityUpdateInfo stabilityInfo = tickToStabilityUpdateState.get(cache.i);
-                int initalRNGMod = initialStabInfo == null ?
+                StabilityUpdateInfo initialInfo = fork == null ? initialStabInfo : fork.getInfo(initialStabInfo, false);
+                StabilityUpdateInfo prevStabInfo = fork == null ? cache.prevStabInfo : fork.getInfo(cache.prevStabInfo, false);
+                int initalRNGMod = initialInfo == null ?
                         StabilityUpdateInfo.getMinRNGVariation()
-                        : initialStabInfo.getRNGUpdateMod();
+                        : initialInfo.getRNGUpdateMod();
                 while (iterator.hasNext()) {
                     StatusState curState = iterator.next();
-                    if(stabilityInfo.isValid()) {
+                    boolean isFreezeClipAccurate = curState.getVents()[0].isFreezeClipAccurate();
+                    StabilityUpdateInfo info = fork == null ? stabilityInfo : fork.getInfo(stabilityInfo, isFreezeClipAccurate);
+                    if(info.isValid()) {
                         //Use stability updates to set/narrow our possible values
                         if (stabilityInfo == initialStabInfo) {
-                            if(curState.getVents()[0].isFreezeClipAccurate()) initialStabInfo.updateVentValues(curState);
-                            curState.alignPredictedRangesWith(initialStabInfo.getStabilityUpdateState());
-                        } else stabilityInfo.updatePredictedState(curState, cache.prevStabInfo, initalRNGMod);
+                            if(isFreezeClipAccurate) info.updateVentValues(curState);
+                            curState.alignPredictedRangesWith(info.getStabilityUpdateState());
+                        } else info.updatePredictedState(curState, prevStabInfo, initalRNGMod);
                     }
 
                     if((timeline[cache.i] & (1 << HALF_SPACE_COMPLETED_FLAG)) != 0) {
@@ -388,25 +436,84 @@ public class VentStatusTimeline {
                 }
             }
         }
-        if(cache.predictedState.getVents()[0].isFreezeClipAccurate())
-            backtrackFreezeClipAccurateA(cache.predictedState);
-        return cache.predictedState;
+    }
+    void finishReplay(StatusState predictedState) {
+        if(predictedState.getVents()[0].isFreezeClipAccurate())
+            backtrackFreezeClipAccurateA(predictedState);
     }
     public StatusState getCurrentPredictionState() {
         return StabilityUpdateInfo.getPredictionState(initialStabInfo, this);
     }
+    public boolean willReplayTick(int tick) {
+        return willReplayTick(getCurrentCache(), tick);
+    }
+    boolean willReplayTick(TimelineCache cache, int tick) {
+        return !cache.isInitialized() || cache.i <= tick;
+    }
 
     //Helpers
+    private TimelineCache getCurrentCache() {
+        int rngMod = initialStabInfo == null ? StabilityUpdateInfo.getMinRNGVariation() : initialStabInfo.getRNGUpdateMod();
+        return getCacheForMod(rngMod);
+    }
+    TimelineCache getCacheForMod(int rngMod) {
+        int index = -rngMod + 1;
+        //Player count can grow mid game which adds more possible rng mods
+        if(index >= timelineCaches.length) {
+            TimelineCache[] caches = new TimelineCache[index+1];
+            for(int i = 0; i < caches.length; ++i)
+                caches[i] = i < timelineCaches.length ? timelineCaches[i] : new TimelineCache();
+            timelineCaches = caches;
+        }
+        TimelineCache cache = timelineCaches[index];
+        if(!cache.isInitialized() && initialState != null) cache.initalize(initialState, startingTick);
+        return cache;
+    }
+    //Ticks without replay events only update the negative stability counter
+    //Returns true when every tick up to the next event was skipped
+    private boolean skipQuietTicks(TimelineCache cache) {
+        int endTick = eventIndex.nextEvent(cache.i, REPLAY_EVENT_MASK);
+        if(endTick == -1 || endTick > currentTick) endTick = currentTick + 1;
+
+        int predictedChange = cache.predictedState.getFutureStabilityChange(UltimateVolcanicMineConfig.PredictionScenario.WORST_CASE);
+        int clipTick = endTick;
+        if(predictedChange < StabilityUpdateInfo.getMinRNGVariation()-1) {
+            //Stop on the first tick predicted stability mismatches can be clipped
+            if(cache.prevStabInfo != null) {
+                int minTicks = STABILITY_UPDATE_TICK_TIME * 2;
+                clipTick = Math.max(cache.i + minTicks - cache.numTicksNegativePredictedStability - 1,
+                        cache.prevStabInfo.getTickTimeStamp() + minTicks);
+                clipTick = Math.max(cache.i, Math.min(clipTick, endTick));
+            }
+            cache.numTicksNegativePredictedStability += clipTick - cache.i;
+        }
+        else cache.numTicksNegativePredictedStability = 0;
+
+        if(clipTick == endTick) {
+            cache.i = endTick - 1;
+            return true;
+        }
+        cache.i = clipTick;
+        return false;
+    }
+    private void addEvent(int type, int tick, int bits) {
+        eventLog.append(type, tick, bits);
+        eventView.catchUp();
+    }
+    //Only logged when there is an estimated movement to remove
+    private void removeEstimatedMovementTick(int tick) {
+        if((timeline[tick] & (1 << ESTIMATED_MOVEMENT_FLAG)) == 0) return;
+        addEvent(TimelineEventLog.EVENT_ESTIMATED_MOVE_REMOVED, tick, 0);
+    }
     private void addNewMovementTickState(int tick, StatusState currentState, int moveState) {
         StatusState newState = new StatusState(currentState);
         tickToMovementVentState.put(tick, newState);
-        timeline[tick] |= (1 << MOVEMENT_UPDATE_FLAG);
-        timeline[tick] |= moveState;
+        addEvent(TimelineEventLog.EVENT_MOVEMENT, tick, moveState);
     }
     private void addNewStabilityUpdateTickState(int tick, StatusState currentState, int change) {
         StabilityUpdateInfo newInfo = new StabilityUpdateInfo(currentState, tick, change);
         tickToStabilityUpdateState.put(currentTick, newInfo);
-        timeline[tick] |= (1 << STABILITY_UPDATE_FLAG);
+        addEvent(TimelineEventLog.EVENT_STABILITY, tick, 0);
         setInitialStabilityUpdateInfo(newInfo);
 //        checkHalfSpace(currentTick);
     }
@@ -426,11 +533,11 @@ public class VentStatusTimeline {
         if((directionFlags & 2) != 0) state.getVents()[1].flipDirection();
         if((directionFlags & 4) != 0) state.getVents()[2].flipDirection();
     }
-    private void handleSameTickDirectionChangeMovement(StatusState curState, int tick) {
+    private void handleSameTickDirectionChangeMovement(StatusState curState, int tick, StatusState newDirState) {
         if((timeline[tick] & (1 << DIRECTION_CHANGED_FLAG)) != 0) {
             //It's possible for the directional change to occur both
             //before and after this movement update; assume both possibilities
-            StatusState newDirState = new StatusState(curState);
+            newDirState.setEqualTo(curState);
             changeStateDirection(newDirState, tick);
             newDirState.updateVentMovement();
             curState.updateVentMovement();
@@ -464,7 +571,8 @@ public class VentStatusTimeline {
         }
         return false;
     }
-    private void removeInvalidPossibilities(LinkedList<StatusState> possibleStates) {
+    private void removeInvalidPossibilities(StatusStateDeque possibleStates) {
+        int numPossibilities = possibleStates.size();
         //Remove all invalid possibilities - always keep 1 state even if invalid
         Iterator<StatusState> iterator = possibleStates.descendingIterator();
         while (iterator.hasNext()) {
@@ -472,6 +580,39 @@ public class VentStatusTimeline {
             StatusState curState = iterator.next();
             if(!curState.areRangesDefined()) iterator.remove();
         }
+        if(metrics != null)
+            metrics.recordPrune(numPossibilities, !possibleStates.getLast().areRangesDefined());
+    }
+    private void evictImplausiblePossibilities(StatusStateDeque possibleStates) {
+        int maxStates = maxPossibleStates;
+        while(possibleStates.size() > maxStates) {
+            //Newest state is the predicted state so it is never evicted
+            int newestIndex = possibleStates.size() - 1;
+            int worstIndex = 0;
+            long worstScore = Long.MIN_VALUE;
+            for(int i = 0; i < newestIndex; ++i) {
+                long score = getImplausibility(possibleStates.get(i), newestIndex - i);
+                //Oldest state wins ties
+                if(score > worstScore) {
+                    worstScore = score;
+                    worstIndex = i;
+                }
+            }
+            possibleStates.remove(worstIndex);
+            if(metrics != null) metrics.recordEviction();
+        }
+    }
+    //Higher is less plausible - wide ranges, freeze clipping that can't be trusted and older skipped movements
+    static long getImplausibility(StatusState state, int age) {
+        if(!state.areRangesDefined()) return Long.MAX_VALUE;
+        long score = (long)age * AGE_PENALTY;
+        for(VentStatus vent : state.getVents()) {
+            if(vent.isIdentified()) continue;
+            score += vent.getLowerBoundEnd() - vent.getLowerBoundStart() + 1;
+            if(vent.isTwoSeperateValues()) score += vent.getUpperBoundEnd() - vent.getUpperBoundStart() + 1;
+            if(vent.canBeFreezeClipAccurate() && !vent.isFreezeClipAccurate()) score += FREEZE_CLIP_PENALTY;
+        }
+        return score;
     }
     private boolean getPointContribution(int startTick, int endTick, int[] pointChange, int[] moveChange) {
         //Exit if starting stability update doesnt exist
@@ -487,7 +628,8 @@ public class VentStatusTimeline {
         }
 
         int directionState = 0, numMovementUpdates = 0;
-        for(int i = startTick; i <= endTick; ++i) {
+        int eventMask = (1 << DIRECTION_CHANGED_FLAG) | (1 << MOVEMENT_UPDATE_FLAG);
+        for(int i = eventIndex.nextEvent(startTick, eventMask); i != -1 && i <= endTick; i = eventIndex.nextEvent(i+1, eventMask)) {
             //Keep track of directional state to ensure proper half space clipping
             if((timeline[i] & (1 << DIRECTION_CHANGED_FLAG)) != 0) {
                 int directionFlags = timeline[i] & DIRECTION_CHANGED_BIT_MASK;
@@ -540,13 +682,14 @@ public class VentStatusTimeline {
         if(moveChange[0] == 0) {
             //For B this is only possible if A is 41-59; just clip A
             if(knownVentIndex == 1) {
+                int halfSpaceBits = 0;
                 if(changeDiff < 0) {
                     //1 placed for downward clipping trend
-                    timeline[tick] |= (1 << HALF_SPACE_COMPLETED_FLAG+4);
+                    halfSpaceBits |= (1 << HALF_SPACE_COMPLETED_FLAG+4);
                 }
                 //0s placed for clipping for upward trend
-                timeline[tick] |= (1 << HALF_SPACE_COMPLETED_FLAG+1);
-                timeline[tick] |= (1 << HALF_SPACE_COMPLETED_FLAG);
+                halfSpaceBits |= (1 << HALF_SPACE_COMPLETED_FLAG+1);
+                addEvent(TimelineEventLog.EVENT_HALF_SPACE, tick, halfSpaceBits);
                 return true;
             }
             //No movement is unacceptable for A
@@ -556,13 +699,14 @@ public class VentStatusTimeline {
             //Both missing vents must have increased or decreased change
             if(Math.abs(changeDiff) <= timeframeSize) return false;
 
+            int halfSpaceBits = 0;
             if(changeDiff < 0) {
                 //1 placed for downward clipping trend
-                timeline[tick] |= (missingVentFlag << HALF_SPACE_COMPLETED_FLAG+4);
+                halfSpaceBits |= (missingVentFlag << HALF_SPACE_COMPLETED_FLAG+4);
             }
             //0s placed for clipping for upward trend
-            timeline[tick] |= (missingVentFlag << HALF_SPACE_COMPLETED_FLAG+1);
-            timeline[tick] |= (1 << HALF_SPACE_COMPLETED_FLAG);
+            halfSpaceBits |= (missingVentFlag << HALF_SPACE_COMPLETED_FLAG+1);
+            addEvent(TimelineEventLog.EVENT_HALF_SPACE, tick, halfSpaceBits);
         }
         return true;
     }
@@ -570,16 +714,46 @@ public class VentStatusTimeline {
     //Accessors
     public boolean isHasReset() { return hasReset; }
     public int getCurrentTick() { return currentTick; }
+    int getNumPossibleStates() { return getCurrentCache().possibleStates.size(); }
     public int getCurrentStartingTick() {return startingTick;}
     public int getNumIdentifiedVents() { return numIdentifiedVents; }
+    public int getNumBacktracks() { return numBacktracks; }
+    public final ParallelPredictionEvaluator getParallelEvaluator() { return parallelEvaluator; }
+    public final PredictionMetrics getMetrics() { return metrics; }
+    public long getStatePoolHits() {
+        long hits = 0;
+        for(TimelineCache cache : timelineCaches) hits += cache.possibleStates.getPoolHits();
+        return hits;
+    }
+    public long getStatePoolMisses() {
+        long misses = 0;
+        for(TimelineCache cache : timelineCaches) misses += cache.possibleStates.getPoolMisses();
+        return misses;
+    }
     public boolean hasEventOccuredThisTick() { return timeline[currentTick] != 0; }
+    //Quiet ticks only change a replay when it clips predicted stability mismatches
+    public boolean isStabilityMismatchClipPossible() {
+        for(TimelineCache cache : timelineCaches) {
+            if(!cache.isInitialized() || cache.prevStabInfo == null) continue;
+            int predictedChange = cache.predictedState.getFutureStabilityChange(UltimateVolcanicMineConfig.PredictionScenario.WORST_CASE);
+            if(predictedChange < StabilityUpdateInfo.getMinRNGVariation()-1) return true;
+        }
+        return false;
+    }
+    //Unknown until the first stability update is seen
+    public boolean isNextTickStabilityUpdate() {
+        return firstStabilityUpdateTick == Integer.MAX_VALUE || (currentTick + 1 - firstStabilityUpdateTick) % STABILITY_UPDATE_TICK_TIME == 0;
+    }
     public final int[] getTimeline() { return timeline; }
+    public final TimelineEventIndex getEventIndex() { return eventIndex; }
+    public final TimelineEventLog getEventLog() { return eventLog; }
     public final int[] getIdentifiedVentTicks() { return identifiedVentTick; }
     public final StatusState[] getIdentifiedVentStates() { return identifiedVentStates; }
     public final StatusState getInitialState() { return initialState; }
-    public final HashMap<Integer, StatusState> getMovementVentStates() { return tickToMovementVentState; }
-    public final HashMap<Integer, StabilityUpdateInfo> getStabilityUpdateStates() { return tickToStabilityUpdateState; }
+    public final TickIndexedStore<StatusState> getMovementVentStates() { return tickToMovementVentState; }
+    public final TickIndexedStore<StabilityUpdateInfo> getStabilityUpdateStates() { return tickToStabilityUpdateState; }
 
     //Modifiers
     public void updateTick() { ++currentTick; }
+    public void setMetrics(PredictionMetrics metrics) { this.metrics = metrics; }
 }
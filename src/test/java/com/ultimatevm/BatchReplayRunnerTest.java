@@ -0,0 +1,96 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+@Test()
+public class BatchReplayRunnerTest {
+    private static final int NUM_GAMES = 6;
+    private Path directory;
+
+    @BeforeClass
+    public void recordGames() throws IOException {
+        directory = Files.createTempDirectory("uvm");
+        //Mix team sizes so games on the same thread can't share a player count
+        for(int i = 0; i < NUM_GAMES; ++i)
+            GameRecordingTest.recordGame(directory.resolve("game" + i + BatchReplayRunner.RECORDING_EXTENSION), i, i % 2 == 0 ? 1 : 7);
+        Files.write(directory.resolve("notes.txt"), new byte[]{1, 2, 3});
+        StabilityUpdateInfo.resetPlayers();
+    }
+    @AfterClass(alwaysRun = true)
+    public void deleteGames() throws IOException {
+        for(Path path : Files.list(directory).toArray(Path[]::new))
+            Files.delete(path);
+        Files.delete(directory);
+    }
+
+    public void findRecordingsTest() throws IOException {
+        List<Path> recordings = BatchReplayRunner.findRecordings(directory);
+        Assert.assertEquals(recordings.size(), NUM_GAMES);
+        Assert.assertTrue(recordings.get(0).toString().endsWith("game0" + BatchReplayRunner.RECORDING_EXTENSION));
+    }
+    public void replayGameTest() throws IOException {
+        BatchReplayResult result = BatchReplayRunner.replayGame(directory.resolve("game1" + BatchReplayRunner.RECORDING_EXTENSION));
+        Assert.assertEquals(result.getNumGames(), 1);
+        Assert.assertEquals(result.getNumTicks(), VentStatusTimeline.VM_GAME_FULL_TIME);
+        //Vent A is found before and after the reset
+        Assert.assertEquals(result.getNumIdentifications(), 2);
+        Assert.assertTrue(result.getNumCorrect() <= result.getNumPredicted());
+        StabilityUpdateInfo.resetPlayers();
+    }
+    public void parallelMatchesSequentialTest() throws IOException, InterruptedException {
+        List<Path> recordings = BatchReplayRunner.findRecordings(directory);
+        BatchReplayResult sequential = BatchReplayRunner.run(recordings, 1);
+        BatchReplayResult parallel = BatchReplayRunner.run(recordings, 4);
+        Assert.assertEquals(sequential.getNumGames(), NUM_GAMES);
+        Assert.assertEquals(sequential.getNumFailedGames(), 0);
+        Assert.assertEquals(sequential.getNumTicks(), NUM_GAMES * VentStatusTimeline.VM_GAME_FULL_TIME);
+        Assert.assertEquals(sequential.getNumIdentifications(), NUM_GAMES * 2);
+        Assert.assertTrue(sequential.getNumPredicted() > 0);
+        Assert.assertTrue(sequential.getTicksPerSecond() > 0);
+
+        Assert.assertEquals(parallel.getNumGames(), sequential.getNumGames());
+        Assert.assertEquals(parallel.getNumFailedGames(), 0);
+        Assert.assertEquals(parallel.getNumIdentifications(), sequential.getNumIdentifications());
+        Assert.assertEquals(parallel.getNumPredicted(), sequential.getNumPredicted());
+        Assert.assertEquals(parallel.getNumCorrect(), sequential.getNumCorrect());
+        Assert.assertTrue(parallel.toReport().contains("Games: " + NUM_GAMES));
+    }
+    public void metricsTest() throws IOException, InterruptedException {
+        Path metricsPath = Files.createTempFile("uvm", ".csv");
+        Files.delete(metricsPath);
+        try {
+            BatchReplayRunner.run(BatchReplayRunner.findRecordings(directory), 2, metricsPath);
+            List<String> lines = Files.readAllLines(metricsPath);
+            Assert.assertEquals(lines.size(), NUM_GAMES + 1);
+            Assert.assertEquals(lines.get(0), PredictionMetrics.CSV_HEADER);
+            for(int i = 0; i < NUM_GAMES; ++i)
+                Assert.assertTrue(lines.get(i + 1).startsWith("game" + i + BatchReplayRunner.RECORDING_EXTENSION + ","));
+        } finally {
+            Files.deleteIfExists(metricsPath);
+        }
+    }
+    public void failedGameTest() throws IOException, InterruptedException {
+        Path badGame = directory.resolve("bad" + BatchReplayRunner.RECORDING_EXTENSION);
+        Files.write(badGame, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        try {
+            BatchReplayResult result = BatchReplayRunner.run(BatchReplayRunner.findRecordings(directory), 2);
+            Assert.assertEquals(result.getNumGames(), NUM_GAMES);
+            Assert.assertEquals(result.getNumFailedGames(), 1);
+            Assert.assertEquals(result.getFailedGameNames().get(0), badGame.getFileName().toString());
+            Assert.assertNotNull(result.getFailureCauses().get(0));
+            Assert.assertFalse(result.getFailureCauses().get(0) instanceof ExecutionException);
+            Assert.assertTrue(result.toReport().contains(badGame.getFileName().toString()));
+        } finally {
+            Files.delete(badGame);
+        }
+    }
+}
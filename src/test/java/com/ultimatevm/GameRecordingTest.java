@@ -0,0 +1,115 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static com.ultimatevm.VentStatus.*;
+
+@Test()
+public class GameRecordingTest {
+    static int u = STARTING_VENT_VALUE;
+
+    //Records a full game while playing it on a predicter and returns the display state of every tick
+    static ArrayList<long[]> recordGame(Path path, long seed, int players) throws IOException {
+        StabilityUpdateInfo.resetPlayers();
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        StabilityTracker stabilityTracker = new StabilityTracker();
+        RandomGame game = new RandomGame(new Random(seed), 40, 60);
+        game.setIdentifyTick(0, 30);
+        game.setEarthquakeChance(150);
+        int[] stability = {StabilityTracker.STARTING_STABILITY};
+        ArrayList<long[]> displayStates = new ArrayList<>();
+        try(GameRecorder recorder = new GameRecorder(path)) {
+            game.play(VentStatusTimeline.VM_GAME_FULL_TIME, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                if(stabilityChange != RandomGame.NO_STABILITY_CHANGE)
+                    stability[0] = Math.min(100, Math.max(1, stability[0] + stabilityChange));
+                if(isEarthquake) {
+                    recorder.markEarthquake();
+                    predicter.markEarthquakeEvent();
+                }
+                try {
+                    recorder.recordTick(shownValues[0], shownValues[1], shownValues[2], chambers, stability[0], players);
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                StabilityUpdateInfo.setNumPlayers(players);
+                predicter.ingest(shownValues[0], shownValues[1], shownValues[2], chambers);
+                if(stabilityTracker.updateStability(stability[0]))
+                    predicter.makeStatusState(stabilityTracker.getCurrentChange());
+                predicter.updateDisplayState();
+                long[] packedState = new long[StatePool.LONGS_PER_STATE];
+                predicter.getDisplayState().pack(packedState, 0);
+                displayStates.add(packedState);
+                predicter.getTimeline().updateTick();
+                if(predicter.getCurrentTick() > VentStatusTimeline.VM_GAME_RESET_TIME) predicter.reset();
+            });
+            Assert.assertEquals(recorder.getNumTicks(), VentStatusTimeline.VM_GAME_FULL_TIME);
+        }
+        return displayStates;
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void resetPlayers() {
+        StabilityUpdateInfo.resetPlayers();
+    }
+    public void recordTest() throws IOException {
+        Path path = Files.createTempFile("uvm", ".uvm");
+        try {
+            try(GameRecorder recorder = new GameRecorder(path)) {
+                recorder.recordTick(u, 50, 100, 5, 47, 3);
+                recorder.markEarthquake();
+                recorder.recordTick(0, 51, 99, 7, 100, 12);
+            }
+            Assert.assertEquals(Files.size(path), GameRecorder.HEADER_SIZE + 2 * GameRecorder.RECORD_SIZE);
+            GameRecordingReader reader = new GameRecordingReader(path);
+            Assert.assertEquals(reader.getNumTicks(), 2);
+            Assert.assertEquals(reader.getVentValue(0, 0), u);
+            Assert.assertEquals(reader.getVentValue(0, 1), 50);
+            Assert.assertEquals(reader.getVentValue(0, 2), 100);
+            Assert.assertEquals(reader.getChambers(0), 5);
+            Assert.assertEquals(reader.getStability(0), 47);
+            Assert.assertEquals(reader.getNumPlayers(0), 3);
+            Assert.assertFalse(reader.isEarthquake(0));
+            Assert.assertEquals(reader.getVentValue(1, 0), 0);
+            Assert.assertEquals(reader.getStability(1), 100);
+            Assert.assertEquals(reader.getNumPlayers(1), 12);
+            Assert.assertTrue(reader.isEarthquake(1));
+        } finally {
+            Files.delete(path);
+        }
+    }
+    public void invalidRecordingTest() {
+        Assert.assertThrows(IOException.class, () -> new GameRecordingReader(ByteBuffer.allocate(4)));
+        Assert.assertThrows(IOException.class, () -> new GameRecordingReader(ByteBuffer.allocate(64)));
+    }
+    public void replayTest() throws IOException {
+        Path path = Files.createTempFile("uvm", ".uvm");
+        try {
+            for(long seed = 1; seed <= 3; ++seed) {
+                ArrayList<long[]> expected = recordGame(path, seed, 4);
+                GameRecordingReader reader = new GameRecordingReader(path);
+                Assert.assertEquals(reader.getNumTicks(), expected.size());
+
+                long[] packedState = new long[StatePool.LONGS_PER_STATE];
+                int[] numTicks = {0};
+                reader.replay(new VentStatusPredicter(), (tick, predicter) -> {
+                    predicter.getDisplayState().pack(packedState, 0);
+                    Assert.assertEquals(packedState, expected.get(tick), "Tick " + tick);
+                    ++numTicks[0];
+                });
+                Assert.assertEquals(numTicks[0], expected.size());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
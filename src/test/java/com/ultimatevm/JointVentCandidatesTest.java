@@ -0,0 +1,102 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static com.ultimatevm.JointVentCandidates.NUM_POINTS;
+import static com.ultimatevm.VentStatus.getStabilityInfluence;
+
+@Test()
+public class JointVentCandidatesTest {
+    int u = VentStatus.STARTING_VENT_VALUE;
+
+    @AfterMethod(alwaysRun = true)
+    public void resetPlayers() {
+        StabilityUpdateInfo.resetPlayers();
+    }
+    public void pairsTest() {
+        JointVentCandidates candidates = new JointVentCandidates(10, 12);
+        for(int x = 0; x < NUM_POINTS; ++x) {
+            for(int y = 0; y < NUM_POINTS; ++y)
+                Assert.assertEquals(candidates.contains(x, y), x + y >= 10 && x + y <= 12, x + "," + y);
+        }
+        Assert.assertEquals(candidates.getNumPairs(), 11 + 12 + 13);
+        Assert.assertEquals(candidates.getFirstPoints(), (1 << 13) - 1);
+        Assert.assertEquals(candidates.getSecondPoints(), (1 << 13) - 1);
+        Assert.assertFalse(candidates.contains(-1, 11));
+        Assert.assertFalse(candidates.contains(11, NUM_POINTS));
+
+        //Sums past what two vents can give
+        Assert.assertTrue(new JointVentCandidates(33, 40).isEmpty());
+        Assert.assertTrue(new JointVentCandidates(-5, -1).isEmpty());
+        Assert.assertEquals(new JointVentCandidates(32, 32).getNumPairs(), 1);
+        Assert.assertEquals(new JointVentCandidates(0, 32).getNumPairs(), NUM_POINTS * NUM_POINTS);
+    }
+    public void retainTest() {
+        JointVentCandidates candidates = new JointVentCandidates(20, 20);
+        //First vent can only give 16 points
+        candidates.retainValues(new VentRangeMask(50, 50), new VentRangeMask(0, 100));
+        Assert.assertEquals(candidates.getNumPairs(), 1);
+        Assert.assertTrue(candidates.contains(16, 4));
+        Assert.assertEquals(candidates.getSecondValues(), JointVentCandidates.getValues(1 << 4));
+
+        JointVentCandidates other = new JointVentCandidates(new JointVentCandidates(0, 32));
+        other.retainPoints(JointVentCandidates.ALL_POINTS, 1 << 5);
+        candidates.retain(other);
+        Assert.assertTrue(candidates.isEmpty());
+    }
+    public void pointsValuesTest() {
+        for(int value = VentStatus.MIN_VENT_VALUE; value <= VentStatus.MAX_VENT_VALUE; ++value) {
+            int points = JointVentCandidates.getPoints(new VentRangeMask(value, value));
+            Assert.assertEquals(points, 1 << getStabilityInfluence(value), "Value " + value);
+        }
+        for(int p = 0; p < NUM_POINTS; ++p) {
+            VentRangeMask values = JointVentCandidates.getValues(1 << p);
+            for(int value = VentStatus.MIN_VENT_VALUE; value <= VentStatus.MAX_VENT_VALUE; ++value)
+                Assert.assertEquals(values.contains(value), getStabilityInfluence(value) == p, "Value " + value);
+        }
+        Assert.assertTrue(JointVentCandidates.getValues(0).isEmpty());
+        Assert.assertEquals(JointVentCandidates.getPoints(new VentRangeMask()), 0);
+    }
+    public void calcDoubleVentValuesTest() {
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{50, u, u}, 0);
+        for(int change = -40; change <= 40; ++change) {
+            StatusState solved = new StatusState(state);
+            boolean isValid = solved.calcPredictedVentValues(change);
+            //Brute force every pair of values
+            VentRangeMask expected = new VentRangeMask();
+            for(int b = VentStatus.MIN_VENT_VALUE; b <= VentStatus.MAX_VENT_VALUE; ++b) {
+                for(int c = VentStatus.MIN_VENT_VALUE; c <= VentStatus.MAX_VENT_VALUE; ++c) {
+                    int stability = StatusState.calcStabilityChange(getStabilityInfluence(50) + getStabilityInfluence(b) + getStabilityInfluence(c));
+                    if(stability == change) expected.addRange(b, b);
+                }
+            }
+            Assert.assertEquals(isValid, !expected.isEmpty(), "Change " + change);
+            if(!isValid) continue;
+            for(int i = 1; i < StatusState.NUM_VENTS; ++i) {
+                VentStatus vent = solved.getVents()[i];
+                Assert.assertEquals(vent.getLowerBoundStart(), expected.getLowerBoundStart(), "Change " + change);
+                Assert.assertEquals(vent.getLowerBoundEnd(), expected.getLowerBoundEnd(), "Change " + change);
+                Assert.assertEquals(vent.getUpperBoundStart(), expected.getUpperBoundStart(), "Change " + change);
+                Assert.assertEquals(vent.getUpperBoundEnd(), expected.getUpperBoundEnd(), "Change " + change);
+            }
+        }
+    }
+    public void allModsMatchEachModTest() {
+        StabilityUpdateInfo.setNumPlayers(7);
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{u, 30, u}, 0);
+        for(int change = -30; change <= 30; ++change) {
+            StabilityUpdateInfo info = new StabilityUpdateInfo(state, 0, change);
+            StatusState allMods = info.getAllPossiblePredictedValuesState();
+            //Same as solving and merging each mod on its own
+            StatusState eachMod = new StatusState(info.getStabilityUpdateState());
+            for(int i = 0; i < StabilityUpdateInfo.getMaxRNGPossibleSize(); ++i)
+                eachMod.mergePredictedRangesWith(info.getPossiblePredictedValuesState(1 - i));
+            for(int i = 0; i < StatusState.NUM_VENTS; ++i)
+                Assert.assertTrue(allMods.getVents()[i].isEqualTo(eachMod.getVents()[i]), "Change " + change + " vent " + i);
+        }
+    }
+}
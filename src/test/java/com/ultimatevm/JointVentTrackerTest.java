@@ -0,0 +1,190 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static com.ultimatevm.VentStatus.*;
+
+@Test()
+public class JointVentTrackerTest {
+    int u = VentStatus.STARTING_VENT_VALUE;
+
+    @AfterMethod(alwaysRun = true)
+    public void resetTracking() {
+        JointVentTracker.setEnabled(false);
+        StabilityUpdateInfo.resetPlayers();
+    }
+    private void update(JointVentTracker tracker, StatusState state, int[] values, int chambers) {
+        int[] changeStates = new int[StatusState.NUM_VENTS];
+        state.updateVentStatus(values[0], values[1], values[2], chambers, changeStates);
+        tracker.updateVentStatus(state, changeStates);
+    }
+    private static VentRangeMask getMovedValues(VentRangeMask values, int moveRate) {
+        VentRangeMask moved = new VentRangeMask(values);
+        moved.updateMovement(1, moveRate, moveRate);
+        return moved;
+    }
+
+    public void lifecycleTest() {
+        JointVentTracker tracker = new JointVentTracker();
+        StatusState state = new StatusState();
+        update(tracker, state, new int[]{u, u, u}, 7);
+        Assert.assertFalse(tracker.isActive());
+
+        //Every pair is possible once a vent is identified
+        update(tracker, state, new int[]{u, 40, u}, 7);
+        Assert.assertTrue(tracker.isActive());
+        Assert.assertEquals(tracker.getKnownIndex(), 1);
+        Assert.assertEquals(tracker.getFirstIndex(), 0);
+        Assert.assertEquals(tracker.getSecondIndex(), 2);
+        Assert.assertEquals(tracker.getNumPairs(), VentRangeMask.NUM_VALUES * VentRangeMask.NUM_VALUES);
+
+        //Two identified vents are left to the single vent solve
+        update(tracker, state, new int[]{60, 40, u}, 7);
+        Assert.assertFalse(tracker.isActive());
+        Assert.assertEquals(tracker.getNumPairs(), 0);
+        Assert.assertTrue(tracker.getFirstValues().isEmpty());
+    }
+    public void movementTest() {
+        JointVentTracker tracker = new JointVentTracker();
+        StatusState state = new StatusState();
+        update(tracker, state, new int[]{u, u, 50}, 7);
+
+        //C moving one means neither A nor B was slowed before moving
+        update(tracker, state, new int[]{u, u, 51}, 7);
+        VentRangeMask fastValues = new VentRangeMask(0, 40);
+        fastValues.addRange(60, 100);
+        VentRangeMask expected = getMovedValues(fastValues, BASE_MOVE_RATE);
+        Assert.assertEquals(tracker.getFirstValues(), expected);
+        Assert.assertEquals(tracker.getSecondValues(), expected);
+        Assert.assertTrue(tracker.contains(2, 62));
+        Assert.assertFalse(tracker.contains(50, 62));
+
+        //C moving two is impossible from inside the slow zone
+        update(tracker, state, new int[]{u, u, 53}, 7);
+        Assert.assertFalse(tracker.isActive());
+    }
+    public void slowedMovementTest() {
+        JointVentTracker tracker = new JointVentTracker();
+        StatusState state = new StatusState();
+        update(tracker, state, new int[]{u, 30, u}, 7);
+
+        //B moving one means A was slowed and C moves one less too
+        update(tracker, state, new int[]{u, 31, u}, 7);
+        Assert.assertEquals(tracker.getFirstValues(), getMovedValues(new VentRangeMask(41, 59), BASE_MOVE_RATE));
+        for(int c = MIN_VENT_VALUE; c <= MAX_VENT_VALUE; ++c) {
+            int movedC = Math.min(MAX_VENT_VALUE, c + Math.max(0, BASE_MOVE_RATE - 1 + getMovementInfluenceOfValue(c)));
+            Assert.assertTrue(tracker.contains(42, movedC), "C " + c);
+        }
+        //Nothing moving up can stay at 0
+        Assert.assertFalse(tracker.contains(42, 0));
+        Assert.assertFalse(tracker.contains(41, 50));
+    }
+    public void estimatedMovementTest() {
+        JointVentTracker tracker = new JointVentTracker();
+        StatusState state = new StatusState();
+        update(tracker, state, new int[]{100, u, u}, 7);
+        int numPairs = tracker.getNumPairs();
+
+        //A can't show movement at the top so both moved and unmoved pairs are kept
+        tracker.updateEstimatedMovement();
+        Assert.assertTrue(tracker.isActive());
+        Assert.assertEquals(tracker.getNumPairs(), numPairs);
+        Assert.assertTrue(tracker.contains(0, 0));
+        Assert.assertTrue(tracker.contains(100, 100));
+    }
+    public void stabilityTest() {
+        for(int players = 1; players <= 6; players += 5) {
+            StabilityUpdateInfo.setNumPlayers(players);
+            for(int change = -30; change <= 10; change += 4) {
+                JointVentTracker tracker = new JointVentTracker();
+                StatusState state = new StatusState();
+                update(tracker, state, new int[]{50, u, u}, 7);
+                tracker.updateStability(change);
+                if(!tracker.isActive()) continue;
+                //Brute force every pair against every rng mod
+                for(int b = MIN_VENT_VALUE; b <= MAX_VENT_VALUE; ++b) {
+                    for(int c = MIN_VENT_VALUE; c <= MAX_VENT_VALUE; ++c) {
+                        int stability = StatusState.calcStabilityChange(getStabilityInfluence(50) + getStabilityInfluence(b) + getStabilityInfluence(c));
+                        int mod = change - stability;
+                        boolean isPossible = mod <= 1 && mod >= StabilityUpdateInfo.getMinRNGVariation();
+                        Assert.assertEquals(tracker.contains(b, c), isPossible, "Change " + change + " pair " + b + "," + c);
+                    }
+                }
+            }
+        }
+    }
+    public void simulatedGamesTest() {
+        //Vents move with the real movement rules so the actual pair must never be dropped
+        JointVentTracker.setEnabled(true);
+        Random random = new Random(20);
+        for(int game = 0; game < 40; ++game) {
+            int players = 1 + random.nextInt(6);
+            StabilityUpdateInfo.setNumPlayers(players);
+            VentStatusPredicter predicter = new VentStatusPredicter();
+            JointVentTracker tracker = predicter.getJointVentTracker();
+            RandomGame randomGame = new RandomGame(random, MIN_STARTING_VENT_VALUE, MAX_STARTING_VENT_VALUE);
+            randomGame.setIdentifyTick(random.nextInt(StatusState.NUM_VENTS), 0);
+            randomGame.setDirectionChangeChance(15);
+            int[] values = randomGame.getValues();
+            int gameIndex = game;
+            randomGame.play(VentStatusTimeline.VM_GAME_RESET_TIME, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                predicter.updateVentStatus(shownValues, chambers);
+                if(stabilityChange != RandomGame.NO_STABILITY_CHANGE) predicter.makeStatusState(stabilityChange);
+                predicter.updateDisplayState();
+                Assert.assertTrue(tracker.isActive(), "Game " + gameIndex + " tick " + tick);
+                Assert.assertTrue(tracker.contains(values[tracker.getFirstIndex()], values[tracker.getSecondIndex()]),
+                        "Game " + gameIndex + " tick " + tick);
+                predicter.getTimeline().updateTick();
+            });
+            Assert.assertTrue(tracker.getNumPairs() < VentRangeMask.NUM_VALUES * VentRangeMask.NUM_VALUES);
+        }
+    }
+    public void narrowingIsNotRecordedTest() {
+        //Only the shown state is narrowed so the timeline predicts the same as without joint ranges
+        Random random = new Random(171);
+        long[] expectedState = new long[StatePool.LONGS_PER_STATE], actualState = new long[StatePool.LONGS_PER_STATE];
+        for(int game = 0; game < 20; ++game) {
+            StabilityUpdateInfo.setNumPlayers(1 + random.nextInt(6));
+            VentStatusPredicter joint = new VentStatusPredicter(), plain = new VentStatusPredicter();
+            RandomGame randomGame = new RandomGame(random, MIN_STARTING_VENT_VALUE, MAX_STARTING_VENT_VALUE);
+            for(int i = 0; i < StatusState.NUM_VENTS; ++i)
+                randomGame.setIdentifyTick(i, 100 + random.nextInt(VentStatusTimeline.VM_GAME_RESET_TIME));
+            randomGame.setIdentifyTick(random.nextInt(StatusState.NUM_VENTS), 0);
+            randomGame.setDirectionChangeChance(15);
+            int gameIndex = game;
+            randomGame.play(VentStatusTimeline.VM_GAME_RESET_TIME, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                JointVentTracker.setEnabled(true);
+                joint.updateVentStatus(shownValues, chambers);
+                JointVentTracker.setEnabled(false);
+                plain.updateVentStatus(shownValues, chambers);
+                if(stabilityChange != RandomGame.NO_STABILITY_CHANGE) {
+                    joint.makeStatusState(stabilityChange);
+                    plain.makeStatusState(stabilityChange);
+                }
+                joint.updateDisplayState();
+                plain.updateDisplayState();
+                StatusState expected = new StatusState(plain.getDisplayState());
+                joint.getJointVentTracker().narrowRanges(expected);
+                expected.pack(expectedState, 0);
+                joint.getDisplayState().pack(actualState, 0);
+                Assert.assertEquals(actualState, expectedState, "Game " + gameIndex + " tick " + tick);
+                joint.getTimeline().updateTick();
+                plain.getTimeline().updateTick();
+            });
+        }
+    }
+    public void disabledTest() {
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        predicter.updateVentStatus(new int[]{u, 40, u}, 7);
+        Assert.assertFalse(predicter.getJointVentTracker().isActive());
+        JointVentTracker.setEnabled(true);
+        predicter.updateVentStatus(new int[]{u, 40, u}, 7);
+        Assert.assertTrue(predicter.getJointVentTracker().isActive());
+        predicter.reset();
+        Assert.assertFalse(predicter.getJointVentTracker().isActive());
+    }
+}
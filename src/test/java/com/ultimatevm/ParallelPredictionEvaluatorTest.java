@@ -0,0 +1,101 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static com.ultimatevm.VentStatus.*;
+
+@Test()
+public class ParallelPredictionEvaluatorTest {
+    //Plays a game where only vent B is found and returns the display state of every tick
+    private ArrayList<long[]> playGame(long seed, int players) {
+        StabilityUpdateInfo.resetPlayers();
+        StabilityUpdateInfo.setNumPlayers(players);
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        return playHalf(predicter, new Random(seed), 40, 60, 1 << 1, null);
+    }
+    //Plays a game where vents B and C are found after a reset with the highest rng every update
+    //so the search always moves past the first mod it tries
+    private ArrayList<long[]> playResetGame(long seed, int players) {
+        StabilityUpdateInfo.resetPlayers();
+        StabilityUpdateInfo.setNumPlayers(players);
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        playHalf(predicter, new Random(seed + 1000), 40, 60, (1 << 1) | (1 << 2), 1);
+        predicter.reset();
+        return playHalf(predicter, new Random(seed), MIN_VENT_VALUE, MAX_VENT_VALUE, (1 << 1) | (1 << 2), 1);
+    }
+    private ArrayList<long[]> playHalf(VentStatusPredicter predicter, Random random, int minValue, int maxValue, int foundVents, Integer fixedRNG) {
+        RandomGame game = new RandomGame(random, minValue, maxValue);
+        for(int i = 0; i < StatusState.NUM_VENTS; ++i)
+            if((foundVents & (1 << i)) != 0) game.setIdentifyTick(i, 20);
+        if(fixedRNG != null) game.setFixedRNG(fixedRNG);
+        ArrayList<long[]> displayStates = new ArrayList<>();
+        game.play(VentStatusTimeline.VM_GAME_RESET_TIME, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+            predicter.updateVentStatus(shownValues, chambers);
+            if(stabilityChange != RandomGame.NO_STABILITY_CHANGE) predicter.makeStatusState(stabilityChange);
+            predicter.updateDisplayState();
+            predicter.getTimeline().updateTick();
+
+            long[] packedState = new long[StatePool.LONGS_PER_STATE];
+            predicter.getDisplayState().pack(packedState, 0);
+            displayStates.add(packedState);
+        });
+        return displayStates;
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void disableParallelPrediction() {
+        ParallelPredictionEvaluator.setEnabled(false);
+        StabilityUpdateInfo.resetPlayers();
+    }
+    public void setEnabledTest() {
+        Assert.assertFalse(ParallelPredictionEvaluator.isEnabled());
+        ParallelPredictionEvaluator.setEnabled(true);
+        Assert.assertTrue(ParallelPredictionEvaluator.isEnabled());
+        ParallelPredictionEvaluator.setEnabled(false);
+        Assert.assertFalse(ParallelPredictionEvaluator.isEnabled());
+    }
+    public void deterministicTest() {
+        //Forks finish in any order but are always applied in the same order
+        ParallelPredictionEvaluator.setEnabled(true);
+        for(long seed = 1; seed <= 3; ++seed) {
+            ArrayList<long[]> firstGame = playGame(seed, 4);
+            ArrayList<long[]> secondGame = playGame(seed, 4);
+            for(int tick = 0; tick < firstGame.size(); ++tick)
+                Assert.assertEquals(secondGame.get(tick), firstGame.get(tick), "Tick " + tick);
+        }
+    }
+    public void matchesSequentialTest() {
+        for(long seed = 1; seed <= 5; ++seed) {
+            ParallelPredictionEvaluator.setEnabled(false);
+            ArrayList<long[]> sequentialGame = playGame(seed, 4);
+            ParallelPredictionEvaluator.setEnabled(true);
+            ArrayList<long[]> parallelGame = playGame(seed, 4);
+            int numPredictedTicks = 0;
+            StatusState displayState = new StatusState();
+            for(int tick = 0; tick < sequentialGame.size(); ++tick) {
+                Assert.assertEquals(parallelGame.get(tick), sequentialGame.get(tick), "Seed " + seed + " tick " + tick);
+                displayState.unpack(sequentialGame.get(tick), 0);
+                VentStatus ventA = displayState.getVents()[0];
+                if(ventA.getLowerBoundEnd() - ventA.getLowerBoundStart() < MAX_STARTING_VENT_VALUE - MIN_STARTING_VENT_VALUE)
+                    ++numPredictedTicks;
+            }
+            //Make sure the hypotheses narrowed vent A down at some point
+            Assert.assertTrue(numPredictedTicks > 0);
+        }
+        //Only the mods the sequential search tries may change the shared stability updates
+        //These games have untried forks that change an update
+        for(long seed : new long[]{18, 20}) {
+            ParallelPredictionEvaluator.setEnabled(false);
+            ArrayList<long[]> sequentialGame = playResetGame(seed, 4);
+            ParallelPredictionEvaluator.setEnabled(true);
+            ArrayList<long[]> parallelGame = playResetGame(seed, 4);
+            for(int tick = 0; tick < sequentialGame.size(); ++tick)
+                Assert.assertEquals(parallelGame.get(tick), sequentialGame.get(tick), "Reset seed " + seed + " tick " + tick);
+        }
+    }
+}
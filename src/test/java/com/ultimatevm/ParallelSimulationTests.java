@@ -0,0 +1,18 @@
+package com.ultimatevm;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+//Same simulations with every rng mod hypothesis replayed on the pool
+@Test()
+public class ParallelSimulationTests extends SimulationTests {
+    @BeforeClass
+    public void enableParallelPrediction() {
+        ParallelPredictionEvaluator.setEnabled(true);
+    }
+    @AfterClass(alwaysRun = true)
+    public void disableParallelPrediction() {
+        ParallelPredictionEvaluator.setEnabled(false);
+    }
+}
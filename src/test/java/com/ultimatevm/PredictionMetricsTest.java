@@ -0,0 +1,108 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@Test()
+public class PredictionMetricsTest {
+    @AfterMethod(alwaysRun = true)
+    public void resetPlayers() {
+        StabilityUpdateInfo.resetPlayers();
+    }
+    public void singleValueTest() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        VentStatusTimeline timeline = new VentStatusTimeline();
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{VentStatus.STARTING_VENT_VALUE, 50, VentStatus.STARTING_VENT_VALUE}, 0);
+        state.getVents()[0].setLowerBoundRange(40, 45);
+        state.getVents()[0].setUpperBoundRange(55, 60);
+        for(int tick = 0; tick < 5; ++tick) {
+            metrics.recordDisplayState(timeline, state);
+            timeline.updateTick();
+        }
+        Assert.assertEquals(metrics.getTicksToSingleValue(false, 0), -1);
+
+        state.getVents()[0].clearRanges();
+        state.getVents()[0].setLowerBoundRange(44, 44);
+        state.getVents()[0].setUpperBoundRange(44, 44);
+        metrics.recordDisplayState(timeline, state);
+        timeline.updateTick();
+        metrics.recordDisplayState(timeline, state);
+        Assert.assertEquals(metrics.getTicksToSingleValue(false, 0), 5);
+        //Identified vents were never predicted
+        Assert.assertEquals(metrics.getTicksToSingleValue(false, 1), -1);
+        Assert.assertEquals(metrics.getTicksToSingleValue(true, 0), -1);
+        Assert.assertEquals(metrics.getNumTicks(), 7);
+    }
+    public void pruneTest() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        metrics.recordPrune(1, false);
+        metrics.recordPrune(4, true);
+        metrics.recordPrune(1, false);
+        Assert.assertEquals(metrics.getNumPrunes(), 3);
+        Assert.assertEquals(metrics.getMaxPossibilities(), 4);
+        Assert.assertEquals(metrics.getMeanPossibilities(), 2.0, 0.001);
+        Assert.assertEquals(metrics.getNumInvalidKept(), 1);
+        Assert.assertEquals(metrics.getNumEvictions(), 0);
+        metrics.recordEviction();
+        Assert.assertEquals(metrics.getNumEvictions(), 1);
+    }
+    public void replayTest() throws IOException {
+        Path path = Files.createTempFile("uvm", ".uvm");
+        try {
+            GameRecordingTest.recordGame(path, 3, 4);
+            VentStatusPredicter predicter = new VentStatusPredicter();
+            PredictionMetrics metrics = new PredictionMetrics();
+            predicter.setMetrics(metrics);
+            new GameRecordingReader(path).replay(predicter);
+
+            Assert.assertSame(predicter.getTimeline().getMetrics(), metrics);
+            Assert.assertEquals(metrics.getNumTicks(), VentStatusTimeline.VM_GAME_FULL_TIME);
+            Assert.assertTrue(metrics.getNumPrunes() > 0);
+            Assert.assertTrue(metrics.getMaxPossibilities() >= metrics.getMeanPossibilities());
+            Assert.assertTrue(metrics.getNumRNGSearches() > 0);
+            Assert.assertTrue(metrics.getNumRNGModsTried() >= metrics.getNumRNGSearches());
+            Assert.assertTrue(metrics.getNumUndefinedSearches() <= metrics.getNumRNGSearches());
+            Assert.assertEquals(metrics.toCsvRow("game").split(",").length, PredictionMetrics.CSV_HEADER.split(",").length);
+            //Every tick has its possibility count once the initial state is added
+            String[] counts = metrics.toCsvRow("game").split(",")[PredictionMetrics.CSV_HEADER.split(",").length - 1].split(" ");
+            Assert.assertEquals(counts.length, VentStatusTimeline.VM_GAME_FULL_TIME);
+            for(int tick = 0; tick < counts.length; ++tick)
+                Assert.assertEquals(Integer.parseInt(counts[tick]), metrics.getPossibilitiesAtTick(tick));
+            Assert.assertTrue(metrics.getPossibilitiesAtTick(VentStatusTimeline.VM_GAME_FULL_TIME - 1) > 0);
+        } finally {
+            Files.delete(path);
+        }
+    }
+    public void metricsFollowInitializeTest() {
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        PredictionMetrics metrics = new PredictionMetrics();
+        predicter.setMetrics(metrics);
+        predicter.initialize();
+        Assert.assertSame(predicter.getTimeline().getMetrics(), metrics);
+        predicter.setMetrics(null);
+        Assert.assertNull(predicter.getTimeline().getMetrics());
+    }
+    public void appendCsvTest() throws IOException {
+        Path path = Files.createTempFile("uvm", ".csv");
+        Files.delete(path);
+        try {
+            PredictionMetrics metrics = new PredictionMetrics();
+            metrics.appendCsv(path, "first");
+            metrics.appendCsv(path, "second");
+            List<String> lines = Files.readAllLines(path);
+            Assert.assertEquals(lines.size(), 3);
+            Assert.assertEquals(lines.get(0), PredictionMetrics.CSV_HEADER);
+            Assert.assertTrue(lines.get(1).startsWith("first,"));
+            Assert.assertTrue(lines.get(2).startsWith("second,"));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ultimatevm;
+
+import java.util.Random;
+
+import static com.ultimatevm.VentStatus.*;
+
+//Random games that follow the game's vent movement and stability rules
+//Vents are shown from their identify tick in each half of the game
+public class RandomGame {
+    interface GameTick {
+        //Stability change is NO_STABILITY_CHANGE on ticks without a stability update
+        void play(int tick, int[] shownValues, int chambers, boolean isEarthquake, int stabilityChange);
+    }
+    static final int NO_STABILITY_CHANGE = Integer.MIN_VALUE;
+    static final int NEVER_IDENTIFIED = Integer.MAX_VALUE;
+
+    private final Random random;
+    private final int[] values = new int[StatusState.NUM_VENTS];
+    private final int[] identifyTicks = {NEVER_IDENTIFIED, NEVER_IDENTIFIED, NEVER_IDENTIFIED};
+    private int chambers, tick = 0;
+    //Chances are one in this many ticks or never when 0
+    private int directionChangeChance = 60, earthquakeChance = 0, skippedMovementChance = 0;
+    private boolean isSteered = false;
+    private Integer fixedRNG = null;
+
+    RandomGame(Random random, int minValue, int maxValue) {
+        this.random = random;
+        for(int i = 0; i < values.length; ++i)
+            values[i] = minValue + random.nextInt(maxValue - minValue + 1);
+        chambers = random.nextInt(8);
+    }
+    //Plays the next ticks of the game
+    void play(int numTicks, GameTick gameTick) {
+        for(int endTick = tick + numTicks; tick < endTick; ++tick) {
+            if(isSteered) steerIdentifiedVents();
+            if(isChance(directionChangeChance)) chambers ^= 1 << random.nextInt(StatusState.NUM_VENTS);
+            if(tick % VentStatusTimeline.VENT_MOVE_TICK_TIME == VentStatusPredicter.SLOWEST_VENT_UPDATE_TICK && !isChance(skippedMovementChance))
+                moveVents(values, chambers);
+            int[] shownValues = new int[StatusState.NUM_VENTS];
+            for(int i = 0; i < shownValues.length; ++i)
+                shownValues[i] = tick % VentStatusTimeline.VM_GAME_RESET_TIME >= identifyTicks[i] ? values[i] : STARTING_VENT_VALUE;
+            boolean isEarthquake = isChance(earthquakeChance);
+            int stabilityChange = NO_STABILITY_CHANGE;
+            if(tick % VentStatusTimeline.STABILITY_UPDATE_TICK_TIME == VentStatusTimeline.STABILITY_UPDATE_TICK_TIME - 1)
+                stabilityChange = getStabilityChange();
+            gameTick.play(tick, shownValues, chambers, isEarthquake, stabilityChange);
+        }
+    }
+    //Vents move in order and a vent in its slow zone also slows every vent after it
+    static void moveVents(int[] values, int chambers) {
+        int outsideInfluence = 0;
+        for(int i = 0; i < values.length; ++i) {
+            int selfInfluence = getMovementInfluenceOfValue(values[i]);
+            int direction = (chambers & (1 << i)) != 0 ? 1 : -1;
+            int move = Math.max(0, BASE_MOVE_RATE + outsideInfluence + selfInfluence) * direction;
+            values[i] = Math.min(MAX_VENT_VALUE, Math.max(MIN_VENT_VALUE, values[i] + move));
+            outsideInfluence += selfInfluence;
+        }
+    }
+    private int getStabilityChange() {
+        int totalInfluence = 0;
+        for(int value : values) totalInfluence += getStabilityInfluence(value);
+        int minRNG = StabilityUpdateInfo.getMinRNGVariation();
+        int rng = fixedRNG != null ? fixedRNG : minRNG + random.nextInt(2 - minRNG);
+        return StatusState.calcStabilityChange(totalInfluence) + rng;
+    }
+    //Players keep the vents they can see away from the edges
+    private void steerIdentifiedVents() {
+        for(int i = 0; i < values.length; ++i) {
+            if(tick % VentStatusTimeline.VM_GAME_RESET_TIME < identifyTicks[i]) continue;
+            if(values[i] < 35) chambers |= (1 << i);
+            if(values[i] > 65) chambers &= ~(1 << i);
+        }
+    }
+    private boolean isChance(int chance) { return chance > 0 && random.nextInt(chance) == 0; }
+
+    //Accessors
+    public int[] getValues() { return values; }
+    public int getChambers() { return chambers; }
+    public void setIdentifyTick(int index, int tick) { identifyTicks[index] = tick; }
+    public void setDirectionChangeChance(int chance) { directionChangeChance = chance; }
+    public void setEarthquakeChance(int chance) { earthquakeChance = chance; }
+    public void setSkippedMovementChance(int chance) { skippedMovementChance = chance; }
+    public void setSteered(boolean steered) { isSteered = steered; }
+    public void setFixedRNG(int rng) { fixedRNG = rng; }
+}
@@ -0,0 +1,50 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static com.ultimatevm.VentStatus.*;
+
+@Test()
+public class ReverseMovementTableTest {
+    int u = VentStatus.STARTING_VENT_VALUE;
+
+    private static int getMovedValue(int value, int direction, int outsideInfluence) {
+        int moveRate = Math.max(0, BASE_MOVE_RATE + outsideInfluence + getMovementInfluenceOfValue(value));
+        return Math.min(MAX_VENT_VALUE, Math.max(MIN_VENT_VALUE, value + moveRate * direction));
+    }
+    public void reversedInfluenceTest() {
+        Assert.assertEquals(ReverseMovementTable.getReversedInfluence(43, 1, 0), -1);
+        Assert.assertEquals(ReverseMovementTable.getReversedInfluence(62, 1, 0), 0);
+        Assert.assertEquals(ReverseMovementTable.getReversedInfluence(42, 1, 0), u);
+        Assert.assertEquals(ReverseMovementTable.getReversedInfluence(61, 1, 0), u);
+        Assert.assertEquals(ReverseMovementTable.getReversedInfluence(58, -1, 0), u);
+        Assert.assertEquals(ReverseMovementTable.getReversedInfluence(57, -1, 0), -1);
+
+        //A reversed influence always matches every value that could have moved there
+        for(int direction = -1; direction <= 1; direction += 2) {
+            for(int outside = -1; outside <= 0; ++outside) {
+                for(int value = MIN_VENT_VALUE; value <= MAX_VENT_VALUE; ++value) {
+                    int influence = ReverseMovementTable.getReversedInfluence(value, direction, outside);
+                    if(influence == u) continue;
+                    for(int prev = MIN_VENT_VALUE; prev <= MAX_VENT_VALUE; ++prev) {
+                        if(getMovedValue(prev, direction, outside) != value) continue;
+                        Assert.assertEquals(getMovementInfluenceOfValue(prev), influence, "Value " + value + " from " + prev);
+                    }
+                }
+            }
+        }
+        //Past the table is worked out directly
+        Assert.assertEquals(ReverseMovementTable.getReversedInfluence(43, 1, -3), getMovementInfluenceOfValue(43));
+    }
+    public void ventReversedInfluenceTest() {
+        //Vents reverse their values through the table
+        VentStatus vent = new VentStatus('A');
+        vent.update(43, 1);
+        Assert.assertEquals(vent.getReversedInfluence(0), -1);
+        vent.doReversedMovement(-1);
+        Assert.assertEquals(vent.getActualValue(), 42);
+        vent.update(61, 1);
+        Assert.assertEquals(vent.getReversedInfluence(0), u);
+    }
+}
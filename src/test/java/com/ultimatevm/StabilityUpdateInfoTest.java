@@ -56,4 +56,28 @@ public class StabilityUpdateInfoTest {
         Assert.assertEquals(possibleValues.getVents()[2].getUpperBoundStart(), 54);
         Assert.assertEquals(possibleValues.getVents()[2].getUpperBoundEnd(), 59);
     }
+
+    public void perThreadPlayersTest() throws InterruptedException {
+        StabilityUpdateInfo.resetPlayers();
+        StabilityUpdateInfo.setNumPlayers(7);
+        StabilityUpdateInfo.setNumPlayers(4);
+        Assert.assertEquals(StabilityUpdateInfo.getNumPlayers(), 7);
+
+        int[] otherPlayers = new int[2];
+        Thread other = new Thread(() -> {
+            otherPlayers[0] = StabilityUpdateInfo.getNumPlayers();
+            StabilityUpdateInfo.setNumPlayers(2);
+            otherPlayers[1] = StabilityUpdateInfo.getNumPlayers();
+        });
+        other.start();
+        other.join();
+        Assert.assertEquals(otherPlayers[0], 1);
+        Assert.assertEquals(otherPlayers[1], 2);
+        Assert.assertEquals(StabilityUpdateInfo.getNumPlayers(), 7);
+
+        StabilityUpdateInfo.restorePlayers(3);
+        Assert.assertEquals(StabilityUpdateInfo.getNumPlayers(), 3);
+        StabilityUpdateInfo.resetPlayers();
+        Assert.assertTrue(StabilityUpdateInfo.isSolo());
+    }
 }
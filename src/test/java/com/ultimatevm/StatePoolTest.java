@@ -0,0 +1,76 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test()
+public class StatePoolTest {
+    int u = VentStatus.STARTING_VENT_VALUE;
+
+    private void assertStatesEqual(StatusState actual, StatusState expected) {
+        Assert.assertTrue(actual.isVentsEqualTo(expected));
+        Assert.assertEquals(actual.getStabilityChange(), expected.getStabilityChange());
+        Assert.assertEquals(actual.getNumIdentifiedVents(), expected.getNumIdentifiedVents());
+        Assert.assertEquals(actual.hasDoneVMReset(), expected.hasDoneVMReset());
+    }
+    public void constructorTest() {
+        StatePool pool = new StatePool(4);
+        Assert.assertEquals(pool.size(), 0);
+        Assert.assertEquals(pool.getCapacity(), 4);
+    }
+    public void roundTripTest() {
+        StatePool pool = new StatePool(1);
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{u,0,100}, 2);
+        state.calcPredictedVentValues(-10);
+        int unidentifiedIndex = pool.add(state);
+
+        StatusState identifiedState = new StatusState();
+        identifiedState.updateVentStatus(new int[]{u,57,43}, 5);
+        VentStatus ventA = identifiedState.getVents()[0];
+        ventA.clearRanges();
+        ventA.setLowerBoundRange(40, 40);
+        ventA.setUpperBoundRange(40, 40);
+        ventA.makeFreezeClipAccurate();
+        int identifiedIndex = pool.add(identifiedState);
+
+        StatusState resetState = new StatusState();
+        resetState.updateVentStatus(new int[]{50,u,u}, 1);
+        resetState.doVMReset();
+        int resetIndex = pool.add(resetState);
+
+        //Pool grows past its starting capacity
+        Assert.assertEquals(pool.size(), 3);
+        Assert.assertTrue(pool.getCapacity() >= 3);
+        assertStatesEqual(pool.get(unidentifiedIndex), state);
+        assertStatesEqual(pool.get(identifiedIndex), identifiedState);
+        assertStatesEqual(pool.get(resetIndex), resetState);
+        Assert.assertTrue(pool.get(identifiedIndex).getVents()[0].isFreezeClipAccurate());
+        Assert.assertEquals(pool.get(identifiedIndex).getVents()[0].getDirection(), 1);
+        Assert.assertEquals(pool.get(identifiedIndex).getVents()[1].getDirection(), -1);
+    }
+    public void copyToTest() {
+        StatePool pool = new StatePool(2);
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{20,u,80}, 4);
+        pool.add(state);
+        pool.add(new StatusState());
+
+        //Copying into an existing state keeps its vent objects
+        StatusState target = new StatusState();
+        VentStatus ventA = target.getVents()[0];
+        pool.copyTo(0, target);
+        assertStatesEqual(target, state);
+        Assert.assertSame(target.getVents()[0], ventA);
+
+        pool.set(1, state);
+        assertStatesEqual(pool.get(1), state);
+    }
+    public void clearTest() {
+        StatePool pool = new StatePool(2);
+        pool.add(new StatusState());
+        pool.clear();
+        Assert.assertEquals(pool.size(), 0);
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> pool.get(0));
+    }
+}
@@ -0,0 +1,74 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+
+@Test()
+public class StatusStateDequeTest {
+    int u = VentStatus.STARTING_VENT_VALUE;
+
+    private StatusState makeState(int bValue) {
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{u,bValue,u}, 0);
+        return state;
+    }
+    public void addLastTest() {
+        StatusStateDeque deque = new StatusStateDeque();
+        Assert.assertTrue(deque.isEmpty());
+        //Grows past its starting capacity
+        for(int i = 0; i < 20; ++i) deque.addLast(makeState(i));
+        Assert.assertEquals(deque.size(), 20);
+        Assert.assertEquals(deque.getLast().getVents()[1].getActualValue(), 19);
+        int expected = 0;
+        for(StatusState state : deque)
+            Assert.assertEquals(state.getVents()[1].getActualValue(), expected++);
+    }
+    public void descendingIteratorRemoveTest() {
+        StatusStateDeque deque = new StatusStateDeque();
+        for(int i = 0; i < 4; ++i) deque.addLast(makeState(i));
+        StatusState removedState = deque.get(2);
+
+        Iterator<StatusState> iterator = deque.descendingIterator();
+        Assert.assertEquals(iterator.next().getVents()[1].getActualValue(), 3);
+        Assert.assertEquals(iterator.next().getVents()[1].getActualValue(), 2);
+        iterator.remove();
+        Assert.assertEquals(iterator.next().getVents()[1].getActualValue(), 1);
+        Assert.assertEquals(iterator.next().getVents()[1].getActualValue(), 0);
+        Assert.assertFalse(iterator.hasNext());
+
+        Assert.assertEquals(deque.size(), 3);
+        Assert.assertEquals(deque.get(2).getVents()[1].getActualValue(), 3);
+        //Removed state goes back to the pool
+        Assert.assertEquals(deque.getNumFreeStates(), 1);
+        Assert.assertSame(deque.acquire(makeState(50)), removedState);
+        Assert.assertEquals(removedState.getVents()[1].getActualValue(), 50);
+    }
+    public void poolCountersTest() {
+        StatusStateDeque deque = new StatusStateDeque();
+        StatusState state = deque.acquire(makeState(30));
+        Assert.assertEquals(deque.getPoolMisses(), 1);
+        Assert.assertEquals(deque.getPoolHits(), 0);
+        deque.release(state);
+        Assert.assertSame(deque.acquire(), state);
+        Assert.assertEquals(deque.getPoolHits(), 1);
+    }
+    public void releaseAllTest() {
+        StatusStateDeque deque = new StatusStateDeque();
+        for(int i = 0; i < 3; ++i) deque.addLast(makeState(i));
+        StatusState keptState = deque.getLast();
+        deque.releaseAll(keptState);
+        Assert.assertTrue(deque.isEmpty());
+        //Kept state is never handed out again
+        Assert.assertEquals(deque.getNumFreeStates(), 2);
+        Assert.assertNotSame(deque.acquire(), keptState);
+        Assert.assertNotSame(deque.acquire(), keptState);
+    }
+    public void invalidIndexTest() {
+        StatusStateDeque deque = new StatusStateDeque();
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> deque.get(0));
+        Assert.assertThrows(java.util.NoSuchElementException.class, deque::getLast);
+        Assert.assertThrows(IllegalStateException.class, () -> deque.descendingIterator().remove());
+    }
+}
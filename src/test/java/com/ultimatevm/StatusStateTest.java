@@ -2015,6 +2015,46 @@ public class StatusStateTest {
         Assert.assertEquals(state.getFutureStabilityChange(worstCase), 23);
         Assert.assertEquals(state.getFutureStabilityChange(bestCase), 23);
     }
+    public void getFutureStabilityChangeCachedTest() {
+        UltimateVolcanicMineConfig.PredictionScenario worstCase = UltimateVolcanicMineConfig.PredictionScenario.WORST_CASE;
+        UltimateVolcanicMineConfig.PredictionScenario bestCase = UltimateVolcanicMineConfig.PredictionScenario.BEST_CASE;
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{u, 50, 50}, 0);
+        state.getVents()[0].clearRanges();
+        state.getVents()[0].setLowerBoundRange(40, 40);
+        state.getVents()[0].setUpperBoundRange(60, 60);
+
+        //Reading doesnt change the version
+        int version = state.getVersion();
+        Assert.assertEquals(state.getFutureStabilityChange(worstCase), 20);
+        Assert.assertEquals(state.getFutureStabilityChange(worstCase), 20);
+        Assert.assertEquals(state.getVersion(), version);
+
+        //Any vent change is seen by the next read
+        state.getVents()[0].flipDirection();
+        Assert.assertNotEquals(state.getVersion(), version);
+        state.getVents()[0].clearRanges();
+        state.getVents()[0].setLowerBoundRange(50, 50);
+        state.getVents()[0].setUpperBoundRange(50, 50);
+        Assert.assertEquals(state.getFutureStabilityChange(worstCase), 23);
+        Assert.assertEquals(state.getFutureStabilityChange(bestCase), 23);
+
+        //Copies carry the cached results over and still see later changes
+        StatusState copy = new StatusState(state);
+        Assert.assertEquals(copy.getFutureStabilityChange(worstCase), 23);
+        copy.getVents()[0].clearRanges();
+        Assert.assertEquals(copy.getFutureStabilityChange(worstCase), u);
+        Assert.assertEquals(state.getFutureStabilityChange(worstCase), 23);
+
+        //Player count isnt part of the vents
+        StabilityUpdateInfo.setNumPlayers(3);
+        try {
+            Assert.assertEquals(state.getFutureStabilityChange(worstCase), 23 + StabilityUpdateInfo.getMinRNGVariation());
+        } finally {
+            StabilityUpdateInfo.resetPlayers();
+        }
+        Assert.assertEquals(state.getFutureStabilityChange(worstCase), 23);
+    }
 
     public float getPercent(int value) {
         float percentValue = 50 - Math.abs(50 - value);
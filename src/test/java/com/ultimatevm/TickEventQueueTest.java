@@ -0,0 +1,72 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test()
+public class TickEventQueueTest {
+    public void capacityTest() {
+        Assert.assertEquals(new TickEventQueue(1).getCapacity(), 2);
+        Assert.assertEquals(new TickEventQueue(8).getCapacity(), 8);
+        Assert.assertEquals(new TickEventQueue(9).getCapacity(), 16);
+        Assert.assertEquals(new TickEventQueue().getCapacity(), TickEventQueue.DEFAULT_CAPACITY);
+    }
+    public void orderTest() {
+        TickEventQueue queue = new TickEventQueue(4);
+        int[] record = new int[TickEventQueue.RECORD_SIZE];
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertFalse(queue.poll(record));
+        Assert.assertTrue(queue.offer(1, 2, 3, 4, 5));
+        Assert.assertTrue(queue.offer(6, 7, 8, 9, 10));
+        Assert.assertEquals(queue.size(), 2);
+        Assert.assertTrue(queue.poll(record));
+        Assert.assertEquals(record, new int[]{1, 2, 3, 4, 5});
+        Assert.assertTrue(queue.poll(record));
+        Assert.assertEquals(record, new int[]{6, 7, 8, 9, 10});
+        Assert.assertTrue(queue.isEmpty());
+    }
+    public void fullTest() {
+        TickEventQueue queue = new TickEventQueue(4);
+        int[] record = new int[TickEventQueue.RECORD_SIZE];
+        for(int i = 0; i < 4; ++i)
+            Assert.assertTrue(queue.offer(i, 0, 0, 0, 0));
+        Assert.assertFalse(queue.offer(4, 0, 0, 0, 0));
+        Assert.assertEquals(queue.size(), 4);
+        Assert.assertTrue(queue.poll(record));
+        Assert.assertEquals(record[0], 0);
+        Assert.assertTrue(queue.offer(4, 0, 0, 0, 0));
+    }
+    public void wrapTest() {
+        TickEventQueue queue = new TickEventQueue(4);
+        int[] record = new int[TickEventQueue.RECORD_SIZE];
+        int next = 0;
+        for(int round = 0; round < 20; ++round) {
+            for(int i = 0; i < 3; ++i)
+                Assert.assertTrue(queue.offer(next + i, 0, 0, 0, next + i));
+            for(int i = 0; i < 3; ++i) {
+                Assert.assertTrue(queue.poll(record));
+                Assert.assertEquals(record[0], next + i);
+                Assert.assertEquals(record[4], next + i);
+            }
+            next += 3;
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+    public void threadedTest() throws InterruptedException {
+        TickEventQueue queue = new TickEventQueue(64);
+        int numRecords = 200000;
+        Thread producer = new Thread(() -> {
+            for(int i = 0; i < numRecords; ++i) {
+                while(!queue.offer(i, i, -i, i * 2, i ^ 7)) Thread.yield();
+            }
+        });
+        producer.start();
+        int[] record = new int[TickEventQueue.RECORD_SIZE];
+        for(int i = 0; i < numRecords; ++i) {
+            while(!queue.poll(record)) Thread.yield();
+            Assert.assertEquals(record, new int[]{i, i, -i, i * 2, i ^ 7});
+        }
+        producer.join();
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
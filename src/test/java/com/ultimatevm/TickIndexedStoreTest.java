@@ -0,0 +1,58 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test()
+public class TickIndexedStoreTest {
+    public void constructorTest() {
+        TickIndexedStore<String> store = new TickIndexedStore<>();
+        Assert.assertEquals(store.getNumTicks(), VentStatusTimeline.VM_GAME_FULL_TIME);
+        Assert.assertTrue(store.isEmpty());
+        Assert.assertNull(store.get(0));
+    }
+    public void putGetTest() {
+        TickIndexedStore<String> store = new TickIndexedStore<>(200);
+        Assert.assertNull(store.put(63, "a"));
+        Assert.assertNull(store.put(64, "b"));
+        Assert.assertNull(store.put(199, "c"));
+        Assert.assertEquals(store.size(), 3);
+        Assert.assertEquals(store.get(63), "a");
+        Assert.assertEquals(store.get(64), "b");
+        Assert.assertEquals(store.get(199), "c");
+        Assert.assertFalse(store.containsKey(62));
+        Assert.assertFalse(store.containsKey(128));
+        //Replacing keeps the size
+        Assert.assertEquals(store.put(64, "d"), "b");
+        Assert.assertEquals(store.size(), 3);
+        Assert.assertEquals(store.get(64), "d");
+    }
+    public void nullValueTest() {
+        TickIndexedStore<String> store = new TickIndexedStore<>(10);
+        store.put(5, null);
+        Assert.assertTrue(store.containsKey(5));
+        Assert.assertEquals(store.size(), 1);
+        store.put(5, "a");
+        Assert.assertEquals(store.size(), 1);
+    }
+    public void removeTest() {
+        TickIndexedStore<String> store = new TickIndexedStore<>(100);
+        store.put(10, "a");
+        store.put(20, "b");
+        Assert.assertEquals(store.remove(10), "a");
+        Assert.assertNull(store.remove(10));
+        Assert.assertFalse(store.containsKey(10));
+        Assert.assertEquals(store.size(), 1);
+        store.clear();
+        Assert.assertTrue(store.isEmpty());
+        Assert.assertFalse(store.containsKey(20));
+    }
+    public void outOfRangeTest() {
+        TickIndexedStore<String> store = new TickIndexedStore<>(100);
+        Assert.assertNull(store.get(-1));
+        Assert.assertNull(store.get(100));
+        Assert.assertFalse(store.containsKey(100));
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> store.put(100, "a"));
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> store.put(-1, "a"));
+    }
+}
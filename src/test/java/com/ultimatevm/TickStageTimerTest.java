@@ -0,0 +1,91 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Test()
+public class TickStageTimerTest {
+    public void bucketTest() {
+        for(long value = 0; value < 100000; ++value) {
+            int bucket = StageHistogram.getBucket(value);
+            Assert.assertTrue(StageHistogram.getBucketStart(bucket) <= value, "Value " + value);
+            Assert.assertTrue(StageHistogram.getBucketEnd(bucket) >= value, "Value " + value);
+        }
+        Assert.assertEquals(StageHistogram.getBucket(7), 7);
+        Assert.assertEquals(StageHistogram.getBucket(8), 8);
+        Assert.assertEquals(StageHistogram.getBucket(16), 16);
+        Assert.assertEquals(StageHistogram.getBucket(17), 16);
+        Assert.assertEquals(StageHistogram.getBucket(Long.MAX_VALUE), StageHistogram.NUM_BUCKETS - 1);
+    }
+    public void percentileTest() {
+        StageHistogram histogram = new StageHistogram();
+        Assert.assertEquals(histogram.getValueAtPercentile(50), 0);
+        for(int value = 1; value <= 1000; ++value)
+            histogram.record(value * 1000L);
+        Assert.assertEquals(histogram.getCount(), 1000);
+        Assert.assertEquals(histogram.getMax(), 1000000);
+        Assert.assertEquals(histogram.getMean(), 500500.0, 0.01);
+        //Buckets keep values within an eighth of their size
+        long p50 = histogram.getValueAtPercentile(50);
+        Assert.assertTrue(p50 >= 500000 && p50 <= 500000 * 9 / 8, "p50 " + p50);
+        long p99 = histogram.getValueAtPercentile(99);
+        Assert.assertTrue(p99 >= 990000 && p99 <= 1000000, "p99 " + p99);
+        Assert.assertEquals(histogram.getValueAtPercentile(100), 1000000);
+
+        histogram.clear();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getMax(), 0);
+    }
+    public void disabledTest() {
+        TickStageTimer timer = new TickStageTimer();
+        long start = timer.beginTick();
+        Assert.assertEquals(start, 0);
+        timer.setEnabled(true);
+        //Enabling mid tick leaves that tick untimed
+        Assert.assertEquals(timer.lap(TickStageTimer.Stage.PREDICTION, start), 0);
+        timer.endTick(start);
+        for(TickStageTimer.Stage stage : TickStageTimer.Stage.values())
+            Assert.assertEquals(timer.getHistogram(stage).getCount(), 0);
+    }
+    public void stageTest() throws InterruptedException {
+        TickStageTimer timer = new TickStageTimer();
+        timer.setEnabled(true);
+        for(int tick = 0; tick < 3; ++tick) {
+            long tickStart = timer.beginTick();
+            long lapStart = timer.lap(TickStageTimer.Stage.IN_VM, tickStart);
+            Thread.sleep(2);
+            lapStart = timer.lap(TickStageTimer.Stage.PREDICTION, lapStart);
+            lapStart = timer.lap(TickStageTimer.Stage.NOTIFICATIONS, lapStart);
+            Thread.sleep(1);
+            timer.lap(TickStageTimer.Stage.PREDICTION, lapStart);
+            timer.endTick(tickStart);
+        }
+        //Both prediction laps are one sample per tick
+        Assert.assertEquals(timer.getHistogram(TickStageTimer.Stage.PREDICTION).getCount(), 3);
+        Assert.assertTrue(timer.getHistogram(TickStageTimer.Stage.PREDICTION).getMean() >= 3000000);
+        Assert.assertEquals(timer.getHistogram(TickStageTimer.Stage.TOTAL).getCount(), 3);
+        Assert.assertTrue(timer.getHistogram(TickStageTimer.Stage.TOTAL).getMax() >= timer.getHistogram(TickStageTimer.Stage.PREDICTION).getMax());
+        Assert.assertEquals(timer.getHistogram(TickStageTimer.Stage.ROCK_TIMERS).getCount(), 0);
+    }
+    public void reportTest() throws IOException {
+        TickStageTimer timer = new TickStageTimer();
+        timer.setEnabled(true);
+        long tickStart = timer.beginTick();
+        timer.lap(TickStageTimer.Stage.ROCK_TIMERS, tickStart);
+        timer.endTick(tickStart);
+
+        Path path = Files.createTempFile("uvm", ".txt");
+        try {
+            timer.writeReport(path);
+            String report = new String(Files.readAllBytes(path));
+            for(TickStageTimer.Stage stage : TickStageTimer.Stage.values())
+                Assert.assertTrue(report.contains(stage.getName()));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static com.ultimatevm.VentStatusTimeline.*;
+
+@Test()
+public class TimelineEventIndexTest {
+    int movementMask = 1 << MOVEMENT_UPDATE_FLAG;
+    int stabilityMask = 1 << STABILITY_UPDATE_FLAG;
+
+    public void setClearTest() {
+        TimelineEventIndex index = new TimelineEventIndex(VM_GAME_FULL_TIME);
+        index.set(70, MOVEMENT_UPDATE_FLAG);
+        Assert.assertTrue(index.has(70, MOVEMENT_UPDATE_FLAG));
+        Assert.assertFalse(index.has(70, STABILITY_UPDATE_FLAG));
+        index.clear(70, MOVEMENT_UPDATE_FLAG);
+        Assert.assertFalse(index.has(70, MOVEMENT_UPDATE_FLAG));
+        Assert.assertFalse(index.has(-1, MOVEMENT_UPDATE_FLAG));
+        Assert.assertFalse(index.has(VM_GAME_FULL_TIME, MOVEMENT_UPDATE_FLAG));
+    }
+    public void nextEventTest() {
+        TimelineEventIndex index = new TimelineEventIndex(VM_GAME_FULL_TIME);
+        index.set(9, MOVEMENT_UPDATE_FLAG);
+        index.set(63, STABILITY_UPDATE_FLAG);
+        index.set(64, MOVEMENT_UPDATE_FLAG);
+        index.set(999, STABILITY_UPDATE_FLAG);
+
+        Assert.assertEquals(index.nextEvent(0, movementMask), 9);
+        Assert.assertEquals(index.nextEvent(9, movementMask), 9);
+        Assert.assertEquals(index.nextEvent(10, movementMask), 64);
+        Assert.assertEquals(index.nextEvent(65, movementMask), -1);
+        Assert.assertEquals(index.nextEvent(10, movementMask | stabilityMask), 63);
+        Assert.assertEquals(index.nextEvent(65, stabilityMask), 999);
+        Assert.assertEquals(index.nextEvent(-5, stabilityMask), 63);
+        Assert.assertEquals(index.nextEvent(VM_GAME_FULL_TIME, stabilityMask), -1);
+    }
+    public void prevEventTest() {
+        TimelineEventIndex index = new TimelineEventIndex(VM_GAME_FULL_TIME);
+        index.set(0, DIRECTION_CHANGED_FLAG);
+        index.set(63, STABILITY_UPDATE_FLAG);
+        index.set(64, MOVEMENT_UPDATE_FLAG);
+        index.set(500, MOVEMENT_UPDATE_FLAG);
+
+        Assert.assertEquals(index.prevEvent(999, movementMask), 500);
+        Assert.assertEquals(index.prevEvent(500, movementMask), 500);
+        Assert.assertEquals(index.prevEvent(499, movementMask), 64);
+        Assert.assertEquals(index.prevEvent(63, movementMask), -1);
+        Assert.assertEquals(index.prevEvent(499, movementMask | stabilityMask), 64);
+        Assert.assertEquals(index.prevEvent(63, movementMask | stabilityMask), 63);
+        Assert.assertEquals(index.prevEvent(62, 1 << DIRECTION_CHANGED_FLAG), 0);
+        Assert.assertEquals(index.prevEvent(-1, movementMask), -1);
+        Assert.assertEquals(index.prevEvent(VM_GAME_FULL_TIME + 10, movementMask), 500);
+    }
+    public void timelineIndexTest() {
+        VentStatusTimeline timeline = new VentStatusTimeline();
+        StatusState state = new StatusState();
+        timeline.addInitialState(state);
+        for(int i = 0; i < 9; ++i) timeline.updateTick();
+        timeline.addEarthquakeEventTick();
+        timeline.addDirectionChangeTick(1 << 3);
+        for(int i = 0; i < 10; ++i) timeline.updateTick();
+        timeline.addEstimatedMovementTick();
+        timeline.addStabilityUpdateTick(state, 10);
+
+        TimelineEventIndex index = timeline.getEventIndex();
+        int[] events = timeline.getTimeline();
+        //Index should match every flag in the timeline
+        for(int tick = 0; tick < VM_GAME_FULL_TIME; ++tick) {
+            for(int flag = DIRECTION_CHANGED_FLAG; flag <= HALF_SPACE_COMPLETED_FLAG; ++flag)
+                Assert.assertEquals(index.has(tick, flag), (events[tick] & (1 << flag)) != 0);
+        }
+        Assert.assertEquals(index.nextEvent(0, REPLAY_EVENT_MASK), 9);
+        Assert.assertEquals(index.nextEvent(10, REPLAY_EVENT_MASK), 19);
+        Assert.assertEquals(index.prevEvent(18, BACKTRACK_EVENT_MASK), 9);
+    }
+}
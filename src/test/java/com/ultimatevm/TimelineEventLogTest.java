@@ -0,0 +1,112 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static com.ultimatevm.TimelineEventLog.*;
+import static com.ultimatevm.VentStatusTimeline.*;
+
+@Test()
+public class TimelineEventLogTest {
+    public void appendTest() {
+        TimelineEventLog log = new TimelineEventLog(1);
+        Assert.assertTrue(log.isEmpty());
+        Assert.assertEquals(log.append(EVENT_MOVEMENT, 9, (5 << 6) | IDENTIFIED_BIT_MASK), 0);
+        Assert.assertEquals(log.append(EVENT_STABILITY, 24, -1), 1);
+        Assert.assertEquals(log.append(EVENT_HALF_SPACE, 24, HALF_SPACE_VENTS_BIT_MASK), 2);
+        Assert.assertEquals(log.size(), 3);
+        //Records only keep the bits their type carries
+        Assert.assertEquals(log.getType(0), EVENT_MOVEMENT);
+        Assert.assertEquals(log.getTick(0), 9);
+        Assert.assertEquals(log.getBits(0), 5 << 6);
+        Assert.assertEquals(log.getBits(1), 0);
+        Assert.assertEquals(log.getBits(2), HALF_SPACE_VENTS_BIT_MASK);
+        Assert.assertEquals(log.getEarliestTickSince(1), 24);
+        Assert.assertEquals(log.getEarliestTickSince(0), 9);
+        Assert.assertEquals(log.getEarliestTickSince(3), -1);
+        Assert.assertTrue(isCorrection(EVENT_MOVEMENT_CORRECTION));
+        Assert.assertFalse(isCorrection(EVENT_MOVEMENT));
+    }
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void readPastEndTest() {
+        TimelineEventLog log = new TimelineEventLog();
+        log.append(EVENT_EARTHQUAKE, 3, 0);
+        log.getTick(1);
+    }
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unknownTypeTest() {
+        new TimelineEventLog().append(NUM_EVENT_TYPES, 3, 0);
+    }
+    public void viewTest() {
+        TimelineEventLog log = new TimelineEventLog();
+        TimelineEventView view = new TimelineEventView(log);
+        Assert.assertEquals(view.catchUp(), -1);
+
+        log.append(EVENT_ESTIMATED_MOVE, 9, 0);
+        log.append(EVENT_MOVEMENT, 19, 1 << 6);
+        Assert.assertFalse(view.isCaughtUp());
+        Assert.assertEquals(view.catchUp(), 9);
+        Assert.assertTrue(view.isCaughtUp());
+        Assert.assertEquals(view.getTimeline()[9], 1 << ESTIMATED_MOVEMENT_FLAG);
+        Assert.assertEquals(view.getTimeline()[19], (1 << MOVEMENT_UPDATE_FLAG) | (1 << 6));
+
+        //Corrections are new events that replace what was there
+        log.append(EVENT_MOVEMENT_CORRECTION, 19, 2 << 6);
+        log.append(EVENT_ESTIMATED_MOVE_REMOVED, 9, 0);
+        Assert.assertEquals(view.catchUp(), 9);
+        Assert.assertEquals(view.getTimeline()[9], 0);
+        Assert.assertFalse(view.getEventIndex().has(9, ESTIMATED_MOVEMENT_FLAG));
+        Assert.assertEquals(view.getTimeline()[19], (1 << MOVEMENT_UPDATE_FLAG) | (2 << 6));
+        Assert.assertEquals(view.getOffset(), 4);
+
+        //Going back rebuilds the view as it was
+        Assert.assertEquals(view.replayTo(2), 0);
+        Assert.assertEquals(view.getTimeline()[9], 1 << ESTIMATED_MOVEMENT_FLAG);
+        Assert.assertTrue(view.getEventIndex().has(9, ESTIMATED_MOVEMENT_FLAG));
+        Assert.assertEquals(view.getTimeline()[19], (1 << MOVEMENT_UPDATE_FLAG) | (1 << 6));
+        Assert.assertEquals(view.catchUp(), 9);
+        Assert.assertEquals(view.getTimeline()[19], (1 << MOVEMENT_UPDATE_FLAG) | (2 << 6));
+    }
+    public void timelineLogTest() {
+        //Simulated games with late identifies so backtracking corrects earlier ticks
+        Random random = new Random(3);
+        int numCorrections = 0;
+        for(int game = 0; game < 5; ++game) {
+            VentStatusPredicter predicter = new VentStatusPredicter();
+            ArrayList<int[]> timelines = new ArrayList<>();
+            ArrayList<Integer> offsets = new ArrayList<>();
+            SimulationTests.playRandomGame(random, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                predicter.updateVentStatus(shownValues, chambers);
+                if(isEarthquake) predicter.markEarthquakeEvent();
+                if(stabilityChange != RandomGame.NO_STABILITY_CHANGE) predicter.makeStatusState(stabilityChange);
+                predicter.updateDisplayState();
+                timelines.add(predicter.getTimeline().getTimeline().clone());
+                offsets.add(predicter.getTimeline().getEventLog().size());
+                predicter.getTimeline().updateTick();
+            });
+
+            //A fresh view of the log matches the timeline at every tick it was recorded
+            VentStatusTimeline timeline = predicter.getTimeline();
+            TimelineEventLog log = timeline.getEventLog();
+            TimelineEventView view = new TimelineEventView(log);
+            for(int i = 0; i < log.size(); ++i) {
+                if(isCorrection(log.getType(i))) ++numCorrections;
+            }
+            for(int tick = 0; tick < timelines.size(); ++tick) {
+                view.replayTo(offsets.get(tick));
+                Assert.assertEquals(view.getTimeline(), timelines.get(tick), "Game " + game + " tick " + tick);
+            }
+            view.replayTo(0);
+            view.catchUp();
+            Assert.assertEquals(view.getTimeline(), timeline.getTimeline());
+            for(int tick = 0; tick < VM_GAME_FULL_TIME; ++tick) {
+                for(int flag = DIRECTION_CHANGED_FLAG; flag <= HALF_SPACE_COMPLETED_FLAG; ++flag)
+                    Assert.assertEquals(view.getEventIndex().has(tick, flag), timeline.getEventIndex().has(tick, flag));
+            }
+        }
+        Assert.assertTrue(numCorrections > 0);
+    }
+}
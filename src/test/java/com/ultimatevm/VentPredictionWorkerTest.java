@@ -0,0 +1,152 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static com.ultimatevm.VentStatus.*;
+
+@Test()
+public class VentPredictionWorkerTest {
+    int u = STARTING_VENT_VALUE;
+    UltimateVolcanicMineConfig.PredictionScenario scenario = UltimateVolcanicMineConfig.PredictionScenario.WORST_CASE;
+
+    //Plays the same game on a predicter directly and through a worker, checking each published tick
+    private void playGame(long seed, int players) {
+        StabilityUpdateInfo.resetPlayers();
+        StabilityUpdateInfo.setNumPlayers(players);
+        VentStatusPredicter expected = new VentStatusPredicter();
+        VentPredictionWorker worker = new VentPredictionWorker(new VentStatusPredicter());
+        worker.setNumPlayers(players);
+        worker.start();
+        RandomGame game = new RandomGame(new Random(seed), 40, 60);
+        game.setIdentifyTick(1, 20);
+        long[] expectedState = new long[StatePool.LONGS_PER_STATE], actualState = new long[StatePool.LONGS_PER_STATE];
+        try {
+            game.play(VentStatusTimeline.VM_GAME_RESET_TIME, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                expected.updateVentStatus(shownValues, chambers);
+                worker.updateVentStatus(shownValues[0], shownValues[1], shownValues[2], chambers);
+                int futureChange = expected.isMovementUpdateTick() ? expected.getFutureStabilityChange(scenario) : u;
+                if(stabilityChange != RandomGame.NO_STABILITY_CHANGE) {
+                    expected.makeStatusState(stabilityChange);
+                    worker.makeStatusState(stabilityChange);
+                }
+                expected.updateDisplayState();
+
+                PredictionSnapshot previous = worker.getLatestSnapshot();
+                worker.endTick();
+                while(worker.getLatestSnapshot() == previous) Thread.yield();
+                PredictionSnapshot snapshot = worker.getLatestSnapshot();
+
+                Assert.assertEquals(snapshot.getTick(), expected.getCurrentTick());
+                Assert.assertEquals(snapshot.isMovementUpdateTick(), expected.isMovementUpdateTick());
+                Assert.assertEquals(snapshot.getFutureStabilityChange(scenario), futureChange);
+                expected.getDisplayState().pack(expectedState, 0);
+                snapshot.getDisplayState().pack(actualState, 0);
+                Assert.assertEquals(actualState, expectedState, "Tick " + tick);
+                for(int i = 0; i < StatusState.NUM_VENTS; ++i)
+                    Assert.assertEquals(snapshot.getVentStatusText(i, "50%"), expected.getVentStatusText(i, "50%"));
+                expected.getTimeline().updateTick();
+            });
+        } finally {
+            worker.stop();
+        }
+        Assert.assertFalse(worker.isRunning());
+        Assert.assertEquals(worker.getNumDroppedEvents(), 0);
+        Assert.assertEquals(worker.getNumFailedEvents(), 0);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void resetPlayers() {
+        StabilityUpdateInfo.resetPlayers();
+    }
+    public void matchesClientThreadTest() {
+        for(long seed = 1; seed <= 3; ++seed)
+            playGame(seed, 4);
+    }
+    public void stopHandlesQueuedEventsTest() {
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        VentPredictionWorker worker = new VentPredictionWorker(predicter);
+        Assert.assertEquals(worker.getLatestSnapshot().getTick(), 0);
+        worker.start();
+        Assert.assertTrue(worker.isRunning());
+        for(int tick = 0; tick < 10; ++tick) {
+            worker.updateVentStatus(u, 50, u, 0);
+            worker.endTick();
+        }
+        worker.stop();
+        Assert.assertEquals(worker.getNumQueuedEvents(), 0);
+        Assert.assertEquals(predicter.getCurrentTick(), 10);
+        Assert.assertEquals(worker.getLatestSnapshot().getTick(), 9);
+    }
+    public void droppedEventsTest() {
+        VentPredictionWorker worker = new VentPredictionWorker(new VentStatusPredicter());
+        //Never started so nothing drains the queue
+        for(int i = 0; i < TickEventQueue.DEFAULT_CAPACITY + 5; ++i)
+            worker.markEarthquakeEvent();
+        Assert.assertEquals(worker.getNumQueuedEvents(), TickEventQueue.DEFAULT_CAPACITY);
+        Assert.assertEquals(worker.getNumDroppedEvents(), 5);
+    }
+    public void droppedEventsStopGameTest() {
+        VentPredictionWorker worker = new VentPredictionWorker(new VentStatusPredicter());
+        for(int i = 0; i < TickEventQueue.DEFAULT_CAPACITY; ++i)
+            worker.markEarthquakeEvent();
+        //Lost before the worker starts so the game can't be predicted past them
+        worker.updateVentStatus(u, 50, u, 0);
+        worker.endTick();
+        worker.start();
+        for(int tick = 0; tick < 5; ++tick) {
+            while(worker.getNumQueuedEvents() > 0) Thread.yield();
+            worker.updateVentStatus(u, 50, u, 0);
+            worker.endTick();
+        }
+        worker.stop();
+        Assert.assertTrue(worker.isGameStopped());
+        Assert.assertEquals(worker.getNumDroppedEvents(), 7);
+        //Ticks keep counting with nothing predicted
+        Assert.assertEquals(worker.getLatestSnapshot().getTick(), 4);
+        Assert.assertFalse(worker.getLatestSnapshot().getDisplayState().getVents()[1].isIdentified());
+        Assert.assertFalse(worker.getLatestSnapshot().isMovementUpdateTick());
+
+        //The next game is predicted again
+        worker.start();
+        worker.initialize();
+        worker.updateVentStatus(u, 50, u, 0);
+        worker.endTick();
+        worker.stop();
+        Assert.assertFalse(worker.isGameStopped());
+        Assert.assertEquals(worker.getLatestSnapshot().getTick(), 0);
+        Assert.assertTrue(worker.getLatestSnapshot().getDisplayState().getVents()[1].isIdentified());
+    }
+    public void failedEventStopsGameTest() {
+        VentStatusPredicter predicter = new VentStatusPredicter() {
+            @Override
+            public void makeStatusState(int change) {
+                throw new IllegalStateException("Stability update failed");
+            }
+        };
+        VentPredictionWorker worker = new VentPredictionWorker(predicter);
+        worker.start();
+        for(int tick = 0; tick < 10; ++tick) {
+            worker.updateVentStatus(u, 50, u, 0);
+            if(tick == 4) worker.makeStatusState(-5);
+            worker.endTick();
+        }
+        worker.stop();
+        Assert.assertEquals(worker.getNumFailedEvents(), 1);
+        Assert.assertTrue(worker.isGameStopped());
+        Assert.assertEquals(worker.getLatestSnapshot().getTick(), 9);
+        Assert.assertFalse(worker.getLatestSnapshot().getDisplayState().getVents()[1].isIdentified());
+        Assert.assertEquals(predicter.getCurrentTick(), 10);
+
+        worker.start();
+        worker.initialize();
+        worker.updateVentStatus(u, 50, u, 0);
+        worker.endTick();
+        worker.stop();
+        Assert.assertFalse(worker.isGameStopped());
+        Assert.assertTrue(worker.getLatestSnapshot().getDisplayState().getVents()[1].isIdentified());
+    }
+}
@@ -0,0 +1,183 @@
+package com.ultimatevm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test()
+public class VentRangeMaskTest {
+    int u = VentStatus.STARTING_VENT_VALUE;
+
+    private void assertBounds(VentRangeMask mask, int lowerStart, int lowerEnd, int upperStart, int upperEnd) {
+        Assert.assertEquals(mask.getLowerBoundStart(), lowerStart);
+        Assert.assertEquals(mask.getLowerBoundEnd(), lowerEnd);
+        Assert.assertEquals(mask.getUpperBoundStart(), upperStart);
+        Assert.assertEquals(mask.getUpperBoundEnd(), upperEnd);
+    }
+    private VentStatus makeVent(int lowerStart, int lowerEnd, int upperStart, int upperEnd) {
+        VentStatus vent = new VentStatus('B');
+        vent.clearRanges();
+        vent.setUpperBoundRange(upperStart, upperEnd);
+        vent.setLowerBoundRange(lowerStart, lowerEnd);
+        return vent;
+    }
+    public void emptyTest() {
+        VentRangeMask mask = new VentRangeMask();
+        Assert.assertTrue(mask.isEmpty());
+        Assert.assertEquals(mask.getNumValues(), 0);
+        Assert.assertFalse(mask.isTwoSeperateValues());
+        assertBounds(mask, u, u, u, u);
+    }
+    public void rangeTest() {
+        //Ranges across both words
+        VentRangeMask mask = new VentRangeMask(60, 70);
+        Assert.assertEquals(mask.getNumValues(), 11);
+        Assert.assertTrue(mask.contains(60));
+        Assert.assertTrue(mask.contains(63));
+        Assert.assertTrue(mask.contains(64));
+        Assert.assertTrue(mask.contains(70));
+        Assert.assertFalse(mask.contains(59));
+        Assert.assertFalse(mask.contains(71));
+        Assert.assertFalse(mask.isTwoSeperateValues());
+        assertBounds(mask, 60, 70, 60, 70);
+
+        //Values are capped like VentStatus caps them
+        mask.setRange(-5, 200);
+        Assert.assertEquals(mask.getNumValues(), VentRangeMask.NUM_VALUES);
+        assertBounds(mask, 0, 100, 0, 100);
+        Assert.assertFalse(mask.contains(101));
+        Assert.assertFalse(mask.contains(-1));
+    }
+    public void mergeTest() {
+        VentRangeMask mask = new VentRangeMask(10, 20);
+        mask.addRange(80, 90);
+        Assert.assertTrue(mask.isTwoSeperateValues());
+        assertBounds(mask, 10, 20, 80, 90);
+
+        //Adjacent values merge into one run
+        mask.addRange(21, 79);
+        Assert.assertFalse(mask.isTwoSeperateValues());
+        assertBounds(mask, 10, 90, 10, 90);
+
+        //Runs past the second are kept in the upper bound
+        mask.setRange(0, 5);
+        mask.addRange(40, 45);
+        mask.addRange(98, 100);
+        assertBounds(mask, 0, 5, 40, 100);
+        Assert.assertEquals(mask.getNumValues(), 15);
+    }
+    public void clippingTest() {
+        VentRangeMask mask = new VentRangeMask(10, 20);
+        mask.addRange(80, 90);
+        Assert.assertTrue(mask.isWithinRange(0, 10));
+        Assert.assertTrue(mask.isWithinRange(90, 100));
+        Assert.assertFalse(mask.isWithinRange(21, 79));
+
+        //Inner clipping drops the lower run
+        VentRangeMask inner = new VentRangeMask(mask);
+        inner.retainRange(50, 85);
+        assertBounds(inner, 80, 85, 80, 85);
+
+        //Outer clipping splits a run in two
+        VentRangeMask outer = new VentRangeMask(80, 90);
+        outer.removeRange(84, 86);
+        assertBounds(outer, 80, 83, 87, 90);
+
+        inner.retainRange(0, 5);
+        Assert.assertTrue(inner.isEmpty());
+    }
+    public void setOperationsTest() {
+        VentRangeMask a = new VentRangeMask(30, 70), b = new VentRangeMask(60, 100);
+        Assert.assertTrue(a.intersects(b));
+        VentRangeMask union = new VentRangeMask(a);
+        union.add(b);
+        assertBounds(union, 30, 100, 30, 100);
+        VentRangeMask intersection = new VentRangeMask(a);
+        intersection.retain(b);
+        assertBounds(intersection, 60, 70, 60, 70);
+        VentRangeMask difference = new VentRangeMask(a);
+        difference.remove(b);
+        assertBounds(difference, 30, 59, 30, 59);
+        Assert.assertFalse(difference.intersects(b));
+        Assert.assertEquals(difference, new VentRangeMask(30, 59));
+        Assert.assertEquals(difference.hashCode(), new VentRangeMask(30, 59).hashCode());
+    }
+    public void ventStatusTest() {
+        VentStatus vent = makeVent(20, 25, 75, 78);
+        VentRangeMask mask = new VentRangeMask(vent);
+        assertBounds(mask, 20, 25, 75, 78);
+
+        //Matches VentStatus' inner and outer clipping
+        VentRangeMask clippedMask = new VentRangeMask(mask);
+        clippedMask.retainRange(22, 76);
+        vent.doInnerBoundsClipping(22, 76);
+        assertBounds(clippedMask, vent.getLowerBoundStart(), vent.getLowerBoundEnd(), vent.getUpperBoundStart(), vent.getUpperBoundEnd());
+
+        vent = makeVent(20, 25, 75, 78);
+        clippedMask = new VentRangeMask(vent);
+        clippedMask.removeRange(0, 21);
+        vent.doOuterBoundsClipping(0, 21);
+        assertBounds(clippedMask, vent.getLowerBoundStart(), vent.getLowerBoundEnd(), vent.getUpperBoundStart(), vent.getUpperBoundEnd());
+
+        //Identified and undefined vents
+        VentStatus identified = new VentStatus('C');
+        identified.update(42, 1);
+        assertBounds(new VentRangeMask(identified), 42, 42, 42, 42);
+        VentStatus undefined = new VentStatus('C');
+        undefined.clearRanges();
+        Assert.assertTrue(new VentRangeMask(undefined).isEmpty());
+        VentStatus appliedVent = new VentStatus('B');
+        clippedMask.applyTo(appliedVent);
+        Assert.assertTrue(appliedVent.isEqualTo(vent));
+        new VentRangeMask().applyTo(vent);
+        Assert.assertFalse(vent.isRangeDefined());
+    }
+    public void movementTest() {
+        //Outside the slow zone every value moves by each possible rate
+        VentRangeMask mask = new VentRangeMask(20, 25);
+        mask.updateMovement(1, 2, 3);
+        assertBounds(mask, 22, 28, 22, 28);
+
+        //Slow zone values move one less
+        mask.setRange(45, 45);
+        mask.updateMovement(-1, 2, 2);
+        assertBounds(mask, 44, 44, 44, 44);
+        mask.setRange(40, 41);
+        mask.updateMovement(1, 2, 2);
+        assertBounds(mask, 42, 42, 42, 42);
+
+        //Values stop at the bounds
+        mask.setRange(97, 100);
+        mask.updateMovement(1, 3, 4);
+        assertBounds(mask, 100, 100, 100, 100);
+        mask.setRange(1, 3);
+        mask.addRange(70, 72);
+        mask.updateMovement(-1, 2, 2);
+        assertBounds(mask, 0, 1, 68, 70);
+
+        //Moves across the word boundary
+        mask.setRange(62, 63);
+        mask.updateMovement(1, 2, 2);
+        assertBounds(mask, 64, 65, 64, 65);
+        mask.updateMovement(-1, 2, 2);
+        assertBounds(mask, 62, 63, 62, 63);
+        mask.setRange(0, 100);
+        mask.updateMovement(1, 100, 100);
+        assertBounds(mask, 100, 100, 100, 100);
+    }
+    public void movementMatchesVentStatusTest() {
+        //Candidate sets stay within the ranges VentStatus moves to
+        int[] influence = {-1, 1};
+        for(int start = 0; start <= 96; start += 3) {
+            for(int direction = -1; direction <= 1; direction += 2) {
+                VentStatus vent = makeVent(start, start + 4, start, start + 4);
+                vent.update(u, direction);
+                VentRangeMask mask = new VentRangeMask(vent);
+                vent.updateMovement(influence);
+                mask.updateMovement(direction, VentStatus.BASE_MOVE_RATE + influence[0], VentStatus.BASE_MOVE_RATE + influence[1]);
+                Assert.assertFalse(mask.isEmpty());
+                Assert.assertTrue(mask.getLowerBoundStart() >= vent.getLowerBoundStart(), "Start " + start);
+                Assert.assertTrue(mask.getUpperBoundEnd() <= vent.getUpperBoundEnd(), "Start " + start);
+            }
+        }
+    }
+}
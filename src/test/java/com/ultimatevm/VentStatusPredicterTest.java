@@ -1,9 +1,13 @@
 package com.ultimatevm;
 
 import net.runelite.client.util.Text;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 import org.testng.Assert;
 
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
 @Test()
 public class VentStatusPredicterTest {
 
@@ -229,4 +233,123 @@ public class VentStatusPredicterTest {
         Assert.assertEquals(result, "A: 45-47 55%");
     }
 
+    public void ingestTest() {
+        VentStatusPredicter expected = new VentStatusPredicter();
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        int[][] ticks = {{u, u, u, 0}, {50, u, u, 1}, {51, u, 40, 5}, {53, 60, 40, 3}, {53, 60, 42, 3}};
+        for(int[] tick : ticks) {
+            expected.updateVentStatus(new int[]{tick[0], tick[1], tick[2]}, tick[3]);
+            predicter.ingest(tick[0], tick[1], tick[2], tick[3]);
+            Assert.assertEquals(predicter.getDisplayState().getNumIdentifiedVents(), expected.getDisplayState().getNumIdentifiedVents());
+            Assert.assertEquals(predicter.getTimeline().getTimeline()[predicter.getCurrentTick()],
+                    expected.getTimeline().getTimeline()[expected.getCurrentTick()]);
+            for(int i = 0; i < StatusState.NUM_VENTS; ++i) {
+                Assert.assertEquals(predicter.getDisplayState().getVents()[i].getActualValue(), expected.getDisplayState().getVents()[i].getActualValue());
+                Assert.assertEquals(predicter.getDisplayState().getVents()[i].getDirection(), expected.getDisplayState().getVents()[i].getDirection());
+            }
+            expected.getTimeline().updateTick();
+            predicter.getTimeline().updateTick();
+        }
+    }
+    public void ingestAllocationTest() {
+        if(!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+            throw new SkipException("Thread allocation counting is not supported");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        if(!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+            throw new SkipException("Thread allocation counting is not enabled");
+        long threadId = Thread.currentThread().getId();
+
+        //One identified vent that stays still and two unknown vents whose chambers keep flipping
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        predicter.ingest(50, u, u, 1);
+        predicter.getTimeline().updateTick();
+        for(int tick = 0; tick < 100; ++tick) {
+            predicter.ingest(50, u, u, (tick & 4) != 0 ? 7 : 1);
+            predicter.getTimeline().updateTick();
+        }
+
+        long emptyStart = threads.getThreadAllocatedBytes(threadId);
+        long emptyBytes = threads.getThreadAllocatedBytes(threadId) - emptyStart;
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for(int tick = 0; tick < 300; ++tick) {
+            predicter.ingest(50, u, u, (tick & 4) != 0 ? 7 : 1);
+            predicter.getTimeline().updateTick();
+        }
+        long ingestBytes = threads.getThreadAllocatedBytes(threadId) - start;
+        Assert.assertTrue(ingestBytes <= emptyBytes, "Ingest allocated " + ingestBytes + " bytes");
+    }
+    public void lazyPredictionTest() {
+        VentStatusPredicter predicter = new VentStatusPredicter();
+        predicter.updateVentStatus(new int[]{u, 50, 50}, 7);
+        predicter.updateRequestedDisplayState();
+        predicter.getTimeline().updateTick();
+        predicter.updateVentStatus(new int[]{u, 50, 50}, 7);
+        predicter.makeStatusState(23);
+        //Ticks the timeline records always work out the display state
+        Assert.assertTrue(predicter.isDisplayStateRequired());
+        predicter.updateRequestedDisplayState();
+        Assert.assertFalse(predicter.isDisplayStateStale());
+        Assert.assertEquals(predicter.getDisplayState().getVents()[0].getLowerBoundStart(), 47);
+        Assert.assertEquals(predicter.getDisplayState().getVents()[0].getUpperBoundEnd(), 53);
+        predicter.getTimeline().updateTick();
+
+        //Nothing read the display state on a quiet tick so it is skipped
+        predicter.updateVentStatus(new int[]{u, 50, 50}, 7);
+        Assert.assertFalse(predicter.isDisplayStateRequired());
+        predicter.updateRequestedDisplayState();
+        Assert.assertTrue(predicter.isDisplayStateStale());
+        Assert.assertEquals(predicter.getDisplayState().getVents()[0].getLowerBoundStart(), 47);
+        predicter.getTimeline().updateTick();
+
+        //Reading asks for the next update
+        predicter.updateVentStatus(new int[]{u, 50, 50}, 7);
+        Assert.assertEquals(Text.removeTags(predicter.getVentStatusText(0, "A: ")), "A: 47-53%");
+        predicter.updateRequestedDisplayState();
+        Assert.assertFalse(predicter.isDisplayStateStale());
+        //Ticks before movement updates are recorded by the next one
+        for(int tick = predicter.getCurrentTick(); !predicter.isNextTickMovementUpdate(); ++tick) {
+            predicter.getTimeline().updateTick();
+            predicter.updateVentStatus(new int[]{u, 50, 50}, 7);
+        }
+        predicter.updateRequestedDisplayState();
+        Assert.assertFalse(predicter.isDisplayStateStale());
+    }
+    public void lazyPredictionMatchesEagerTest() {
+        //An unread lazy predicter only skips ticks that don't change its predictions
+        Random random = new Random(5);
+        int[] numSkippedTicks = {0};
+        for(int game = 0; game < 8; ++game) {
+            StabilityUpdateInfo.resetPlayers();
+            StabilityUpdateInfo.setNumPlayers(1 + random.nextInt(8));
+            VentStatusPredicter predicter = new VentStatusPredicter(), lazyPredicter = new VentStatusPredicter();
+            //Stability stays the same for a while every other game
+            boolean hasStabilityGaps = game % 2 == 1;
+            int gameIndex = game;
+            SimulationTests.playRandomGame(random, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                if(hasStabilityGaps && tick % 150 > 40) stabilityChange = RandomGame.NO_STABILITY_CHANGE;
+                for(VentStatusPredicter p : new VentStatusPredicter[]{predicter, lazyPredicter}) {
+                    p.updateVentStatus(shownValues, chambers);
+                    if(isEarthquake) p.markEarthquakeEvent();
+                    if(stabilityChange != RandomGame.NO_STABILITY_CHANGE) p.makeStatusState(stabilityChange);
+                }
+                predicter.updateDisplayState();
+                predicter.getTimeline().updateTick();
+                lazyPredicter.updateRequestedDisplayState();
+                lazyPredicter.getTimeline().updateTick();
+                if(lazyPredicter.isDisplayStateStale()) ++numSkippedTicks[0];
+
+                //Read without asking for an update so the lazy predicter stays unread
+                StatusState displayState = predicter.getDisplayState(), lazyDisplayState = lazyPredicter.getDisplayState();
+                Assert.assertTrue(lazyDisplayState.isVentsEqualTo(displayState), "Game " + gameIndex + " tick " + tick);
+                for(int i = 0; i < StatusState.NUM_VENTS; ++i) {
+                    Assert.assertEquals(VentStatusPredicter.getVentStatusText(lazyDisplayState, i, "A: "),
+                            VentStatusPredicter.getVentStatusText(displayState, i, "A: "));
+                }
+                for(UltimateVolcanicMineConfig.PredictionScenario scenario : UltimateVolcanicMineConfig.PredictionScenario.values())
+                    Assert.assertEquals(lazyDisplayState.getFutureStabilityChange(scenario), displayState.getFutureStabilityChange(scenario));
+            });
+        }
+        StabilityUpdateInfo.resetPlayers();
+        Assert.assertTrue(numSkippedTicks[0] > 0);
+    }
 }
@@ -1733,4 +1733,45 @@ public class VentStatusTest {
         Assert.assertEquals(vent.getLowerBoundEnd(), 43);
         Assert.assertEquals(vent.getUpperBoundEnd(), 43);
     }
+    public void stabilityInfluenceTableTest() {
+        Assert.assertEquals(VentStatus.getStabilityInfluence(0), 0);
+        Assert.assertEquals(VentStatus.getStabilityInfluence(1), 1);
+        Assert.assertEquals(VentStatus.getStabilityInfluence(25), 8);
+        Assert.assertEquals(VentStatus.getStabilityInfluence(47), 16);
+        Assert.assertEquals(VentStatus.getStabilityInfluence(50), 16);
+        Assert.assertEquals(VentStatus.getStabilityInfluence(56), 15);
+        Assert.assertEquals(VentStatus.getStabilityInfluence(100), 0);
+        //Values outside the table are still calculated
+        Assert.assertEquals(VentStatus.getStabilityInfluence(u), -8);
+    }
+    public void movementInfluenceTableTest() {
+        Assert.assertEquals(VentStatus.getMovementInfluenceOfValue(40), 0);
+        Assert.assertEquals(VentStatus.getMovementInfluenceOfValue(41), -1);
+        Assert.assertEquals(VentStatus.getMovementInfluenceOfValue(59), -1);
+        Assert.assertEquals(VentStatus.getMovementInfluenceOfValue(60), 0);
+        Assert.assertEquals(VentStatus.getMovementInfluenceOfValue(-1), 0);
+        Assert.assertEquals(VentStatus.getMovementInfluenceOfValue(u), 0);
+    }
+    public void pointsToRangeTest() {
+        assertPointsRanges(16, 47, 53, 47, 53);
+        assertPointsRanges(15, 44, 46, 54, 56);
+        assertPointsRanges(11, 32, 34, 66, 68);
+        assertPointsRanges(8, 22, 25, 75, 78);
+        assertPointsRanges(0, 0, 0, 100, 100);
+        assertPointsRanges(17, -1, -1, -1, -1);
+        assertPointsRanges(-1, -1, -1, -1, -1);
+        //Every value maps back into the range for its points
+        for(int value = VentStatus.MIN_VENT_VALUE; value <= VentStatus.MAX_VENT_VALUE; ++value) {
+            int points = VentStatus.getStabilityInfluence(value);
+            int start = value <= VentStatus.PERFECT_VENT_VALUE ? VentStatus.getLowerRangeStart(points) : VentStatus.getUpperRangeStart(points);
+            int end = value <= VentStatus.PERFECT_VENT_VALUE ? VentStatus.getLowerRangeEnd(points) : VentStatus.getUpperRangeEnd(points);
+            Assert.assertTrue(start <= value && value <= end, "Value " + value);
+        }
+    }
+    private void assertPointsRanges(int points, int lowerStart, int lowerEnd, int upperStart, int upperEnd) {
+        Assert.assertEquals(VentStatus.getLowerRangeStart(points), lowerStart);
+        Assert.assertEquals(VentStatus.getLowerRangeEnd(points), lowerEnd);
+        Assert.assertEquals(VentStatus.getUpperRangeStart(points), upperStart);
+        Assert.assertEquals(VentStatus.getUpperRangeEnd(points), upperEnd);
+    }
 }
@@ -3,7 +3,7 @@ package com.ultimatevm;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
-import java.util.HashMap;
+import java.util.Random;
 
 @Test()
 public class VentStatusTimelineTest {
@@ -36,8 +36,8 @@ public class VentStatusTimelineTest {
     public void initializeTest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
 
         timeline.addInitialState(new StatusState());
         timeline.addIdentifiedVentTick(new StatusState(), 1);
@@ -63,8 +63,8 @@ public class VentStatusTimelineTest {
     public void resetTest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
 
         timeline.addInitialState(new StatusState());
         timeline.addIdentifiedVentTick(new StatusState(), 1);
@@ -187,7 +187,7 @@ public class VentStatusTimelineTest {
         VentStatusTimeline timeline = new VentStatusTimeline();
         timeline.addInitialState(new StatusState());
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         StatusState state1 = new StatusState();
         int onFlag = (1 << VentStatusTimeline.MOVEMENT_UPDATE_FLAG);
 
@@ -216,7 +216,7 @@ public class VentStatusTimelineTest {
     public void addStabilityUpdateTickTest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
         StatusState state1 = new StatusState();
         int onFlag = (1 << VentStatusTimeline.STABILITY_UPDATE_FLAG);
 
@@ -231,7 +231,7 @@ public class VentStatusTimelineTest {
 
     public void addStabilityUpdateTickCalcTest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
         StatusState state1 = new StatusState();
         state1.updateVentStatus(new int[]{VentStatus.STARTING_VENT_VALUE,50, 50}, 0);
         timeline.addStabilityUpdateTick(state1, 10);
@@ -290,6 +290,76 @@ public class VentStatusTimelineTest {
         Assert.assertEquals(MoveStartTimeline.getTimeline()[40], (1 << VentStatusTimeline.EARTHQUAKE_EVENT_FLAG));
     }
 
+    private int getNumPossibleStatesAfterSkips(int numSkips) {
+        VentStatusTimeline timeline = new VentStatusTimeline();
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{u, 50, 50}, 0);
+        timeline.addInitialState(state);
+        advanceTicks(timeline, 10);
+        timeline.addMovementTick(state, 0);
+        for(int i = 0; i < numSkips; ++i) {
+            advanceTicks(timeline, 10);
+            Assert.assertTrue(timeline.addEstimatedMovementTick());
+        }
+        StatusState predictedState = timeline.getTimelinePredictionState();
+        TimelineCache cache = timeline.getCacheForMod(StabilityUpdateInfo.getMinRNGVariation());
+        Assert.assertSame(cache.possibleStates.getLast(), predictedState);
+        return cache.possibleStates.size();
+    }
+    public void maxPossibleStatesTest() {
+        int numSkips = 8;
+        try {
+            VentStatusTimeline.setMaxPossibleStates(64);
+            int unboundedSize = getNumPossibleStatesAfterSkips(numSkips);
+            Assert.assertTrue(unboundedSize > 3);
+
+            VentStatusTimeline.setMaxPossibleStates(3);
+            Assert.assertEquals(getNumPossibleStatesAfterSkips(numSkips), 3);
+
+            //Bound can't drop below two so the prediction still has an alternative
+            VentStatusTimeline.setMaxPossibleStates(0);
+            Assert.assertEquals(VentStatusTimeline.getMaxPossibleStates(), VentStatusTimeline.MIN_POSSIBLE_STATES);
+            Assert.assertEquals(getNumPossibleStatesAfterSkips(numSkips), VentStatusTimeline.MIN_POSSIBLE_STATES);
+        } finally {
+            VentStatusTimeline.setMaxPossibleStates(VentStatusTimeline.DEFAULT_MAX_POSSIBLE_STATES);
+        }
+    }
+    public void implausibilityTest() {
+        StatusState narrow = new StatusState();
+        narrow.updateVentStatus(new int[]{u, 50, 50}, 0);
+        narrow.getVents()[0].clearRanges();
+        narrow.getVents()[0].setLowerBoundRange(40, 42);
+        narrow.getVents()[0].setUpperBoundRange(40, 42);
+        StatusState wide = new StatusState(narrow);
+        wide.getVents()[0].clearRanges();
+        wide.getVents()[0].setLowerBoundRange(30, 42);
+        wide.getVents()[0].setUpperBoundRange(30, 42);
+        StatusState split = new StatusState(narrow);
+        split.getVents()[0].clearRanges();
+        split.getVents()[0].setLowerBoundRange(30, 32);
+        split.getVents()[0].setUpperBoundRange(40, 42);
+
+        Assert.assertEquals(VentStatusTimeline.getImplausibility(narrow, 0), 3);
+        Assert.assertEquals(VentStatusTimeline.getImplausibility(split, 0), 6);
+        Assert.assertEquals(VentStatusTimeline.getImplausibility(wide, 0), 13);
+        //Older possibilities are less likely
+        Assert.assertEquals(VentStatusTimeline.getImplausibility(narrow, 2), 3 + 2 * VentStatusTimeline.AGE_PENALTY);
+
+        //Freeze clipping that can't be trusted
+        StatusState single = new StatusState(narrow);
+        single.getVents()[0].clearRanges();
+        single.getVents()[0].setLowerBoundRange(40, 40);
+        single.getVents()[0].setUpperBoundRange(40, 40);
+        Assert.assertEquals(VentStatusTimeline.getImplausibility(single, 0), 1 + VentStatusTimeline.FREEZE_CLIP_PENALTY);
+        single.getVents()[0].makeFreezeClipAccurate();
+        Assert.assertEquals(VentStatusTimeline.getImplausibility(single, 0), 1);
+
+        //Undefined ranges are always evicted first
+        StatusState undefined = new StatusState(narrow);
+        undefined.getVents()[0].clearRanges();
+        Assert.assertEquals(VentStatusTimeline.getImplausibility(undefined, 0), Long.MAX_VALUE);
+    }
+
     public void clearMoveSkipEstimatedMoveTest() {
         int addedEstMoveFlag = (1 << VentStatusTimeline.ESTIMATED_MOVEMENT_FLAG);
 
@@ -509,8 +579,8 @@ public class VentStatusTimelineTest {
         timeline.addIdentifiedVentTick(state, 1);
 
         //Verify results
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         //Early Stability update should remain unchanged
         StatusState tick20StabState = tickToStabilityUpdateState.get(20).getStabilityUpdateState();
         Assert.assertEquals(tick20StabState.getVents()[0].getActualValue(), u);
@@ -527,6 +597,74 @@ public class VentStatusTimelineTest {
         Assert.assertTrue(tick41StabState.getVents()[2].isRangeDefined());
     }
 
+    public void cacheInvalidationTest() {
+        VentStatusTimeline timeline = new VentStatusTimeline();
+        StatusState state = new StatusState();
+        state.updateVentStatus(new int[]{u,u,u}, 0);
+        timeline.addInitialState(state);
+        //Vent B is identified
+        advanceTicks(timeline, 20);
+        state.updateVentStatus(new int[]{u,75,u}, 0);
+        timeline.addIdentifiedVentTick(state, 2);
+        advanceTicks(timeline, 9);
+        state.updateVentStatus(new int[]{u,74,u}, 0);
+        timeline.addMovementTick(state, makeMoveBitState(1, 1, 1));
+        advanceTicks(timeline, 10);
+
+        //Cache should only advance by new ticks
+        timeline.getTimelinePredictionState();
+        Assert.assertFalse(timeline.willReplayTick(timeline.getCurrentTick()));
+        advanceTicks(timeline, 1);
+        Assert.assertTrue(timeline.willReplayTick(timeline.getCurrentTick()));
+        Assert.assertFalse(timeline.willReplayTick(29));
+        int numBacktracks = timeline.getNumBacktracks();
+
+        //Identifying A backtracks so the cache replays from the starting tick
+        state.updateVentStatus(new int[]{50,74,u}, 0);
+        timeline.addIdentifiedVentTick(state, 1);
+        Assert.assertEquals(timeline.getNumBacktracks(), numBacktracks+1);
+        Assert.assertTrue(timeline.willReplayTick(timeline.getCurrentStartingTick()));
+    }
+    public void backtrackMatchesRebuiltCacheTest() {
+        //Predictions after a backtrack are the same as rebuilding every cache from the starting tick
+        Random random = new Random(11);
+        int[] numChecked = {0};
+        int players = StabilityUpdateInfo.getNumPlayers();
+        try {
+            for(int game = 0; game < 40; ++game) {
+                StabilityUpdateInfo.resetPlayers();
+                StabilityUpdateInfo.setNumPlayers(1 + random.nextInt(8));
+                VentStatusPredicter predicter = new VentStatusPredicter();
+                VentStatusPredicter rebuiltPredicter = new VentStatusPredicter();
+                VentStatusTimeline rebuiltTimeline = rebuiltPredicter.getTimeline();
+                int gameIndex = game;
+                int[] numBacktracks = {0};
+                SimulationTests.playRandomGame(random, (tick, shownValues, chambers, isEarthquake, stabilityChange) -> {
+                    for(VentStatusPredicter curPredicter : new VentStatusPredicter[]{predicter, rebuiltPredicter}) {
+                        curPredicter.updateVentStatus(shownValues, chambers);
+                        if(isEarthquake) curPredicter.markEarthquakeEvent();
+                        if(stabilityChange != RandomGame.NO_STABILITY_CHANGE) curPredicter.makeStatusState(stabilityChange);
+                    }
+                    //Backtracks made while predicting last tick are rebuilt here too
+                    if(rebuiltTimeline.getNumBacktracks() != numBacktracks[0]) {
+                        rebuiltTimeline.initalizeCache();
+                        numBacktracks[0] = rebuiltTimeline.getNumBacktracks();
+                        ++numChecked[0];
+                    }
+                    predicter.updateDisplayState();
+                    rebuiltPredicter.updateDisplayState();
+                    Assert.assertTrue(predicter.getDisplayState().isVentsEqualTo(rebuiltPredicter.getDisplayState()), "Game " + gameIndex + " tick " + tick);
+                    Assert.assertEquals(predicter.getTimeline().getNumBacktracks(), rebuiltTimeline.getNumBacktracks());
+                    predicter.getTimeline().updateTick();
+                    rebuiltTimeline.updateTick();
+                });
+            }
+        } finally {
+            StabilityUpdateInfo.restorePlayers(players);
+        }
+        Assert.assertTrue(numChecked[0] > 40);
+    }
+
     public void updatePreviousVentValuesOnMovementTickTest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         StatusState state = new StatusState();
@@ -542,7 +680,7 @@ public class VentStatusTimelineTest {
         timeline.addIdentifiedVentTick(state, 3);
 
         //Stability update will not update since there are no movement ticks
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
         StatusState tick20StabState = tickToStabilityUpdateState.get(20).getStabilityUpdateState();
         Assert.assertEquals(tick20StabState.getVents()[0].getActualValue(), u);
         Assert.assertEquals(tick20StabState.getVents()[1].getActualValue(), u);
@@ -578,7 +716,7 @@ public class VentStatusTimelineTest {
         timeline.addMovementTick(state, makeMoveBitState(3, 1, 3));
 
         //1st Stability update should be changed
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
         StatusState tick20StabState = tickToStabilityUpdateState.get(20).getStabilityUpdateState();
         Assert.assertEquals(tick20StabState.getVents()[0].getActualValue(), u);
         Assert.assertEquals(tick20StabState.getVents()[1].getActualValue(), 60);
@@ -637,13 +775,13 @@ public class VentStatusTimelineTest {
 
 
         //1st Stability update should remain the same due to reverse move fail
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
         StatusState tick50StabState = tickToStabilityUpdateState.get(50).getStabilityUpdateState();
         Assert.assertEquals(tick50StabState.getVents()[0].getActualValue(), 55);
         Assert.assertEquals(tick50StabState.getVents()[1].getActualValue(), u);
         Assert.assertEquals(tick50StabState.getVents()[2].getActualValue(), u);
         //Movement ticks should also remain the same
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         Assert.assertEquals(tickToMovementVentState.get(40).getVents()[1].getActualValue(), u);
         Assert.assertEquals(timelineEvents[40] & VentStatusTimeline.MOVEMENT_BIT_MASK, validMoveBitState);
         Assert.assertEquals(tickToMovementVentState.get(50).getVents()[1].getActualValue(), u);
@@ -870,8 +1008,8 @@ public class VentStatusTimelineTest {
     public void reverseMovementATest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         StatusState state = new StatusState();
         state.doVMReset();
         state.updateVentStatus(new int[]{u,u,u}, 0);
@@ -943,8 +1081,8 @@ public class VentStatusTimelineTest {
     public void reverseMovementBTest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         StatusState state = new StatusState();
         state.doVMReset();
         state.updateVentStatus(new int[]{u,u,u}, 0);
@@ -1016,8 +1154,8 @@ public class VentStatusTimelineTest {
     public void reverseMovementCTest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         StatusState state = new StatusState();
         state.doVMReset();
         state.updateVentStatus(new int[]{u,u,u}, 0);
@@ -1089,8 +1227,8 @@ public class VentStatusTimelineTest {
     public void reverseMovementFreezeClipAccurateATest() {
         VentStatusTimeline timeline = new VentStatusTimeline();
         int[] timelineEvents = timeline.getTimeline();
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         StatusState state = new StatusState();
         state.doVMReset();
         state.updateVentStatus(new int[]{u,u,u}, 0);
@@ -1135,7 +1273,10 @@ public class VentStatusTimelineTest {
         advanceTicks(timeline, 10);
         state.updateVentStatus(new int[]{u,63,u}, 0);
         timeline.addMovementTick(state, makeMoveBitState(3, 2, 3));
+        int numBacktracks = timeline.getNumBacktracks();
         state = timeline.getTimelinePredictionState();
+        //Reversing A counts as a single backtrack
+        Assert.assertEquals(timeline.getNumBacktracks(), numBacktracks+1);
 
         //We should have a freeze clipped accurate A
         Assert.assertTrue(state.getVents()[0].isFreezeClipAccurate());
@@ -1425,8 +1566,8 @@ public class VentStatusTimelineTest {
         timeline.addIdentifiedVentTick(state, 2);
 
         //Verify results - lowerbound 30s was right answer
-        HashMap<Integer, StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
-        HashMap<Integer, StatusState> tickToMovementVentState = timeline.getMovementVentStates();
+        TickIndexedStore<StabilityUpdateInfo> tickToStabilityUpdateState = timeline.getStabilityUpdateStates();
+        TickIndexedStore<StatusState> tickToMovementVentState = timeline.getMovementVentStates();
         StatusState tick74StabState = tickToStabilityUpdateState.get(74).getStabilityUpdateState();
         StatusState predictedState = timeline.getCurrentPredictionState();
 